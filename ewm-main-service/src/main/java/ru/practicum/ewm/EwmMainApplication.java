@@ -2,11 +2,13 @@ package ru.practicum.ewm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {
         "ru.practicum.ewm",      // компоненты основного сервиса
         "ru.practicum.stats"     // компоненты клиента статистики
 })
+@EnableScheduling
 public class EwmMainApplication {
     public static void main(String[] args) {
         SpringApplication.run(EwmMainApplication.class, args);
@@ -0,0 +1,105 @@
+package ru.practicum.ewm.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш с ограничением размера и временем жизни записей.
+ * <p>
+ * Запись хранится не дольше {@code ttl}. Когда кэш заполнен, из него сначала удаляются просроченные записи;
+ * если места всё равно нет, новая запись не сохраняется. Любой сброс увеличивает поколение кэша:
+ * значение, загрузка которого началась до сброса, не сохраняется, так как могло быть прочитано до изменения.
+ * {@code null} от загрузчика не кэшируется.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    public BoundedTtlCache(Duration ttl, int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Значение из кэша или от {@code loader}.
+     */
+    public V get(K key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Entry<V> cached = entries.get(key);
+        if (cached != null && !cached.isExpired(now)) {
+            return cached.value();
+        }
+
+        long loadedGeneration = generation.get();
+        V value = loader.get();
+        if (value != null) {
+            store(key, new Entry<>(value, now + ttlNanos), loadedGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Заменяет значение записи, если оно не изменилось с момента чтения; время жизни записи сохраняется.
+     */
+    public void replace(K key, V expected, V value) {
+        entries.computeIfPresent(key, (k, e) -> e.value() == expected ? new Entry<>(value, e.expiresAt()) : e);
+    }
+
+    /**
+     * Непросроченные записи кэша.
+     */
+    public Map<K, V> snapshot() {
+        long now = System.nanoTime();
+        Map<K, V> snapshot = new HashMap<>();
+        entries.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) {
+                snapshot.put(key, entry.value());
+            }
+        });
+        return snapshot;
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        generation.incrementAndGet();
+        entries.values().removeIf(e -> predicate.test(e.value()));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private void store(K key, Entry<V> entry, long loadedGeneration) {
+        if (entries.size() >= maxSize) {
+            long now = System.nanoTime();
+            entries.values().removeIf(e -> e.isExpired(now));
+        }
+        if (entries.size() >= maxSize || generation.get() != loadedGeneration) {
+            return;
+        }
+        entries.put(key, entry);
+        if (generation.get() != loadedGeneration) {
+            entries.remove(key, entry);
+        }
+    }
+}
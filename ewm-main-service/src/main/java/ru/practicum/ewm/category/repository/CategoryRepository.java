@@ -1,13 +1,19 @@
 package ru.practicum.ewm.category.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.ewm.category.model.Category;
 
+import java.util.List;
+
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
+    // Страница без подсчёта общего числа строк, в отличие от findAll(Pageable)
+    List<Category> findAllBy(Pageable pageable);
+
     @Query("SELECT COUNT(e) > 0 FROM Event e WHERE e.category.id = :catId")
     boolean hasEvents(Long catId);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package ru.practicum.ewm.category.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.ewm.cache.BoundedTtlCache;
+import ru.practicum.ewm.category.dto.CategoryDto;
+import ru.practicum.ewm.category.mapper.CategoryMapper;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * {@link CategoryDto} по id для сборки DTO событий и публичного чтения категории.
+ * Запись сбрасывается после коммита транзакции, изменившей или удалившей категорию.
+ * Проверки существования на записи сюда не обращаются: удалённая категория может ещё оставаться в кэше.
+ */
+@Component
+@Slf4j
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final BoundedTtlCache<Long, CategoryDto> categories;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         CategoryMapper categoryMapper,
+                         @Value("${ewm.categories.cache.ttl:PT10M}") Duration ttl,
+                         @Value("${ewm.categories.cache.max-size:1000}") int maxSize) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.categories = new BoundedTtlCache<>(ttl, maxSize);
+    }
+
+    /**
+     * Категория из кэша или из БД; пустой результат, если категории нет.
+     * Возвращается общий для всех вызовов экземпляр: его можно отдавать в ответах, но не изменять.
+     */
+    public Optional<CategoryDto> get(Long categoryId) {
+        return Optional.ofNullable(categories.get(categoryId,
+                () -> categoryRepository.findById(categoryId).map(categoryMapper::toDto).orElse(null)));
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChanged change) {
+        categories.invalidate(change.categoryId());
+        log.debug("Из кэша категорий убрана категория {}", change.categoryId());
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.ewm.category.service;
+
+/**
+ * Категория изменена или удалена. Публикуется в транзакции изменения.
+ */
+public record CategoryChanged(Long categoryId) {
+}
@@ -2,6 +2,7 @@ package ru.practicum.ewm.category.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository repository;
     private final CategoryMapper mapper;
+    private final CategoryCache categoryCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -56,6 +59,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         mapper.updateFromDto(dto, category);
         Category updated = repository.save(category);
+        eventPublisher.publishEvent(new CategoryChanged(catId));
         log.info("Категория с ID {} успешно обновлена", updated.getId());
 
         return mapper.toDto(updated);
@@ -73,6 +77,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         repository.deleteById(catId);
+        eventPublisher.publishEvent(new CategoryChanged(catId));
         log.info("Категория с ID {} успешно удалена", catId);
     }
 
@@ -82,7 +87,7 @@ public class CategoryServiceImpl implements CategoryService {
         int page = from == 0 ? 0 : from / size;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id").ascending());
 
-        List<CategoryDto> categories = repository.findAll(pageRequest).stream()
+        List<CategoryDto> categories = repository.findAllBy(pageRequest).stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
 
@@ -93,10 +98,14 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public CategoryDto getCategoryById(Long catId) {
         log.info("Получен запрос на получение категории по ID: {}", catId);
-        Category category = getCategoryOrThrow(catId);
+        CategoryDto category = categoryCache.get(catId)
+                .orElseThrow(() -> {
+                    log.warn("Категория с ID {} не найдена", catId);
+                    return new NotFoundException("Категория с id=" + catId + " не найдена");
+                });
 
         log.info("Категория найдена: ID={}, name='{}'", category.getId(), category.getName());
-        return mapper.toDto(category);
+        return category;
     }
 
     private Category getCategoryOrThrow(Long catId) {
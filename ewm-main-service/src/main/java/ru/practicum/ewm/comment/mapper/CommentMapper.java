@@ -5,21 +5,26 @@ import ru.practicum.ewm.comment.dto.CommentDto;
 import ru.practicum.ewm.comment.dto.NewCommentDto;
 import ru.practicum.ewm.comment.dto.UpdateCommentDto;
 import ru.practicum.ewm.comment.model.Comment;
-import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.service.EventStatsEnricher;
 import ru.practicum.ewm.user.mapper.UserMapper;
 import ru.practicum.ewm.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class CommentMapper {
 
-    private final EventMapper eventMapper;
+    private final EventStatsEnricher eventStatsEnricher;
     private final UserMapper userMapper;
 
-    public CommentMapper(EventMapper eventMapper, UserMapper userMapper) {
-        this.eventMapper = eventMapper;
+    public CommentMapper(EventStatsEnricher eventStatsEnricher, UserMapper userMapper) {
+        this.eventStatsEnricher = eventStatsEnricher;
         this.userMapper = userMapper;
     }
 
@@ -33,10 +38,28 @@ public class CommentMapper {
     }
 
     public CommentDto toDto(Comment comment) {
+        return toDto(comment, eventStatsEnricher.toShortDto(comment.getEvent()));
+    }
+
+    /**
+     * Преобразует список комментариев, дополняя их события статистикой за один проход.
+     */
+    public List<CommentDto> toDtos(List<Comment> comments) {
+        Map<Long, EventShortDto> events = eventStatsEnricher.toShortDtos(comments.stream()
+                        .map(Comment::getEvent)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+
+        return comments.stream()
+                .map(c -> toDto(c, events.get(c.getEvent().getId())))
+                .toList();
+    }
+
+    private CommentDto toDto(Comment comment, EventShortDto event) {
         return CommentDto.builder()
                 .id(comment.getId())
                 .text(comment.getText())
-                .event(eventMapper.toShortDto(comment.getEvent()))
+                .event(event)
                 .author(userMapper.toUserShortDto(comment.getAuthor()))
                 .createdOn(comment.getCreatedOn())
                 .build();
@@ -9,6 +9,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = Comment.WITH_EVENT_AND_AUTHOR,
+        attributeNodes = {
+                @NamedAttributeNode("author"),
+                @NamedAttributeNode(value = "event", subgraph = "event")
+        },
+        subgraphs = @NamedSubgraph(name = "event", attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("initiator")
+        }))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,6 +25,11 @@ import java.time.LocalDateTime;
 @Builder
 public class Comment {
 
+    /**
+     * План загрузки для преобразования в DTO: автор и событие с категорией и инициатором читаются одним запросом.
+     */
+    public static final String WITH_EVENT_AND_AUTHOR = "Comment.withEventAndAuthor";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,11 +37,11 @@ public class Comment {
     @Column(nullable = false, length = 2000)
     private String text;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
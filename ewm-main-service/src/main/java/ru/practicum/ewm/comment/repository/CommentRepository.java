@@ -1,14 +1,22 @@
 package ru.practicum.ewm.comment.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.comment.model.Comment;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @Override
+    @EntityGraph(Comment.WITH_EVENT_AND_AUTHOR)
+    Optional<Comment> findById(Long id);
+
+    @EntityGraph(Comment.WITH_EVENT_AND_AUTHOR)
     List<Comment> findAllByEventId(Long eventId, Pageable pageable);
 
+    @EntityGraph(Comment.WITH_EVENT_AND_AUTHOR)
     List<Comment> findAllByAuthorId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+}
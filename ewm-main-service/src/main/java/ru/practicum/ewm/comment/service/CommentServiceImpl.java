@@ -21,7 +21,6 @@ import ru.practicum.ewm.user.model.User;
 import ru.practicum.ewm.user.repository.UserRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -109,9 +108,7 @@ public class CommentServiceImpl implements CommentService {
         int page = from / size;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("createdOn").descending());
 
-        List<CommentDto> comments = commentRepository.findAllByEventId(eventId, pageRequest).stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+        List<CommentDto> comments = commentMapper.toDtos(commentRepository.findAllByEventId(eventId, pageRequest));
 
         log.info("Возвращено {} комментариев к событию {}", comments.size(), eventId);
         return comments;
@@ -126,9 +123,7 @@ public class CommentServiceImpl implements CommentService {
         int page = from / size;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("createdOn").descending());
 
-        List<CommentDto> comments = commentRepository.findAllByAuthorId(userId, pageRequest).stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+        List<CommentDto> comments = commentMapper.toDtos(commentRepository.findAllByAuthorId(userId, pageRequest));
 
         log.info("Возвращено {} комментариев пользователя {}", comments.size(), userId);
         return comments;
@@ -9,7 +9,7 @@ import ru.practicum.ewm.event.dto.EventShortDto;
 import java.util.Set;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class CompilationDto {
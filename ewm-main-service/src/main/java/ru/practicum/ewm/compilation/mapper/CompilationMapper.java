@@ -5,20 +5,22 @@ import ru.practicum.ewm.compilation.dto.CompilationDto;
 import ru.practicum.ewm.compilation.dto.NewCompilationDto;
 import ru.practicum.ewm.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.model.CompilationEventView;
 import ru.practicum.ewm.event.dto.EventShortDto;
-import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.model.EventShortView;
+import ru.practicum.ewm.event.service.EventStatsEnricher;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class CompilationMapper {
 
-    private final EventMapper eventMapper;
+    private final EventStatsEnricher eventStatsEnricher;
 
-    public CompilationMapper(EventMapper eventMapper) {
-        this.eventMapper = eventMapper;
+    public CompilationMapper(EventStatsEnricher eventStatsEnricher) {
+        this.eventStatsEnricher = eventStatsEnricher;
     }
 
     public Compilation toEntity(NewCompilationDto dto) {
@@ -29,16 +31,39 @@ public class CompilationMapper {
                 .build();
     }
 
+    /**
+     * Преобразует подборку с уже загруженными сущностями событий.
+     */
     public CompilationDto toDto(Compilation compilation) {
-        Set<EventShortDto> eventDtos = compilation.getEvents().stream()
-                .map(eventMapper::toShortDto)
-                .collect(Collectors.toSet());
+        Set<EventShortDto> events = new HashSet<>(eventStatsEnricher.toShortDtos(compilation.getEvents()));
+        return toDto(compilation, events);
+    }
+
+    /**
+     * Преобразует страницу подборок по проекциям их событий, дополняя события статистикой за один проход.
+     */
+    public List<CompilationDto> toDtos(List<Compilation> compilations, List<CompilationEventView> events) {
+        List<EventShortView> distinct = events.stream()
+                .map(CompilationEventView::event)
+                .distinct()
+                .toList();
+        Map<Long, EventShortDto> eventDtos = eventStatsEnricher.toShortDtos(distinct).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        Map<Long, Set<EventShortDto>> byCompilation = events.stream()
+                .collect(Collectors.groupingBy(CompilationEventView::compilationId,
+                        Collectors.mapping(e -> eventDtos.get(e.event().id()), Collectors.toSet())));
+
+        return compilations.stream()
+                .map(compilation -> toDto(compilation, byCompilation.getOrDefault(compilation.getId(), Set.of())))
+                .toList();
+    }
 
+    private CompilationDto toDto(Compilation compilation, Set<EventShortDto> events) {
         return CompilationDto.builder()
                 .id(compilation.getId())
                 .title(compilation.getTitle())
                 .pinned(compilation.isPinned())
-                .events(eventDtos)
+                .events(events)
                 .build();
     }
 
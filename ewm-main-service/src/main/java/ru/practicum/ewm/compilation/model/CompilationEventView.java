@@ -0,0 +1,29 @@
+package ru.practicum.ewm.compilation.model;
+
+import ru.practicum.ewm.event.model.EventShortView;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие подборки в виде {@link EventShortView}. Плоский конструктор нужен для JPQL-выражения
+ * {@code SELECT new}, которое не допускает вложенных конструкторов.
+ */
+public record CompilationEventView(Long compilationId, EventShortView event) {
+
+    public CompilationEventView(Long compilationId,
+                                Long id,
+                                String annotation,
+                                Long categoryId,
+                                String categoryName,
+                                Long confirmedRequests,
+                                LocalDateTime eventDate,
+                                Long initiatorId,
+                                String initiatorName,
+                                Boolean paid,
+                                String title,
+                                Long views,
+                                LocalDateTime publishedOn) {
+        this(compilationId, new EventShortView(id, annotation, categoryId, categoryName, confirmedRequests, eventDate,
+                initiatorId, initiatorName, paid, title, views, publishedOn));
+    }
+}
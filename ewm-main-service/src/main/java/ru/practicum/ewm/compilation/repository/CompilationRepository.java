@@ -2,8 +2,12 @@ package ru.practicum.ewm.compilation.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.model.CompilationEventView;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
@@ -11,4 +15,15 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
     List<Compilation> findAllByPinned(boolean pinned, Pageable pageable);
 
     List<Compilation> findAllBy(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * События подборок со столбцами краткого DTO, одним запросом без загрузки сущностей событий.
+     */
+    @Query("""
+            SELECT new ru.practicum.ewm.compilation.model.CompilationEventView(comp.id, e.id, e.annotation, c.id, c.name,
+                       e.confirmedRequests, e.eventDate, i.id, i.name, e.paid, e.title, e.views, e.publishedOn)
+            FROM Compilation comp JOIN comp.events e JOIN e.category c JOIN e.initiator i
+            WHERE comp.id IN :compilationIds
+            """)
+    List<CompilationEventView> findEventViews(@Param("compilationIds") Collection<Long> compilationIds);
+}
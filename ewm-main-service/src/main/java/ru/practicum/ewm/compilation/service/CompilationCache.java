@@ -0,0 +1,189 @@
+package ru.practicum.ewm.compilation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.ewm.cache.BoundedTtlCache;
+import ru.practicum.ewm.category.service.CategoryChanged;
+import ru.practicum.ewm.compilation.dto.CompilationDto;
+import ru.practicum.ewm.compilation.mapper.CompilationMapper;
+import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.model.CompilationEventView;
+import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.model.EventCapacity;
+import ru.practicum.ewm.event.model.EventPublication;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventChanged;
+import ru.practicum.ewm.event.service.EventStatsEnricher;
+import ru.practicum.ewm.user.service.UserChanged;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш готовых {@link CompilationDto} публичного API.
+ * <p>
+ * Подборка со своими событиями хранится до изменения самой подборки, любого её события, а также категории
+ * или инициатора события, чьи названия вошли в DTO (но не дольше {@code ttl}): сброс выполняется
+ * после коммита изменившей их транзакции.
+ * Просмотры и число подтверждённых заявок меняются часто, поэтому они не сбрасывают кэш,
+ * а обновляются у всех записей отдельно, раз в {@code counters-refresh-interval}:
+ * один запрос к сервису статистики и один к БД. Чтение из кэша к ним не обращается.
+ */
+@Component
+@Slf4j
+public class CompilationCache {
+
+    /**
+     * Ключ: одна подборка по id или страница подборок с фильтром {@code pinned}.
+     */
+    public record Key(Long compilationId, Boolean pinned, int from, int size) {
+
+        static Key byId(Long compilationId) {
+            return new Key(compilationId, null, 0, 0);
+        }
+
+        static Key page(Boolean pinned, int from, int size) {
+            return new Key(null, pinned, from, size);
+        }
+    }
+
+    private record Entry(List<CompilationDto> compilations, Set<Long> eventIds, Set<Long> categoryIds,
+                         Set<Long> initiatorIds, List<EventPublication> publications) {
+    }
+
+    private final CompilationMapper compilationMapper;
+    private final CompilationRepository compilationRepository;
+    private final EventStatsEnricher eventStatsEnricher;
+    private final EventRepository eventRepository;
+    private final BoundedTtlCache<Key, Entry> entries;
+
+    public CompilationCache(CompilationMapper compilationMapper,
+                            CompilationRepository compilationRepository,
+                            EventStatsEnricher eventStatsEnricher,
+                            EventRepository eventRepository,
+                            @Value("${ewm.compilations.cache.ttl:PT10M}") Duration ttl,
+                            @Value("${ewm.compilations.cache.max-size:500}") int maxSize) {
+        this.compilationMapper = compilationMapper;
+        this.compilationRepository = compilationRepository;
+        this.eventStatsEnricher = eventStatsEnricher;
+        this.eventRepository = eventRepository;
+        this.entries = new BoundedTtlCache<>(ttl, maxSize);
+    }
+
+    /**
+     * Возвращает подборки из кэша или строит их из сущностей, которые вернёт {@code loader}.
+     * События подборок читаются одним запросом проекций, без загрузки их сущностей.
+     */
+    public List<CompilationDto> get(Key key, Supplier<List<Compilation>> loader) {
+        return entries.get(key, () -> load(loader)).compilations();
+    }
+
+    private Entry load(Supplier<List<Compilation>> loader) {
+        List<Compilation> compilations = loader.get();
+        List<CompilationEventView> events = compilations.isEmpty() ? List.of()
+                : compilationRepository.findEventViews(compilations.stream().map(Compilation::getId).toList());
+        List<CompilationDto> dtos = compilationMapper.toDtos(compilations, events);
+
+        Set<Long> eventIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        Set<Long> initiatorIds = new HashSet<>();
+        List<EventPublication> publications = new ArrayList<>();
+        events.stream()
+                .map(CompilationEventView::event)
+                .filter(e -> eventIds.add(e.id()))
+                .forEach(e -> {
+                    categoryIds.add(e.categoryId());
+                    initiatorIds.add(e.initiatorId());
+                    if (e.publishedOn() != null) {
+                        publications.add(new EventPublication(e.id(), e.publishedOn()));
+                    }
+                });
+        return new Entry(dtos, eventIds, categoryIds, initiatorIds, publications);
+    }
+
+    @TransactionalEventListener
+    public void onCompilationChanged(CompilationChanged change) {
+        entries.invalidateAll();
+        log.debug("Кэш подборок сброшен: изменена подборка {}", change.compilationId());
+    }
+
+    @TransactionalEventListener
+    public void onEventChanged(EventChanged change) {
+        entries.invalidateIf(e -> e.eventIds().contains(change.eventId()));
+        log.debug("Из кэша подборок убраны записи с событием {}", change.eventId());
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChanged change) {
+        entries.invalidateIf(e -> e.categoryIds().contains(change.categoryId()));
+        log.debug("Из кэша подборок убраны записи с категорией {}", change.categoryId());
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChanged change) {
+        entries.invalidateIf(e -> e.initiatorIds().contains(change.userId()));
+        log.debug("Из кэша подборок убраны записи с инициатором {}", change.userId());
+    }
+
+    /**
+     * Обновляет просмотры и число подтверждённых заявок событий во всех записях кэша.
+     * Если сервис статистики не ответил, прежние просмотры сохраняются: они только растут.
+     */
+    @Scheduled(fixedDelayString = "${ewm.compilations.cache.counters-refresh-interval:PT15S}")
+    public void refreshCounters() {
+        Map<Key, Entry> snapshot = entries.snapshot();
+        if (snapshot.isEmpty()) return;
+
+        Set<Long> eventIds = new HashSet<>();
+        Set<EventPublication> publications = new HashSet<>();
+        snapshot.values().forEach(e -> {
+            eventIds.addAll(e.eventIds());
+            publications.addAll(e.publications());
+        });
+
+        Map<Long, Long> views;
+        try {
+            views = eventStatsEnricher.fetchViews(publications);
+        } catch (Exception e) {
+            log.warn("Не удалось обновить просмотры событий подборок: {}", e.getMessage());
+            views = Map.of();
+        }
+        Map<Long, Long> confirmed = eventIds.isEmpty() ? Map.of() : eventRepository.findCapacities(eventIds).stream()
+                .collect(Collectors.toMap(EventCapacity::id, EventCapacity::confirmedRequests));
+
+        for (Map.Entry<Key, Entry> cached : snapshot.entrySet()) {
+            Entry entry = cached.getValue();
+            Entry refreshed = new Entry(withCounters(entry.compilations(), views, confirmed),
+                    entry.eventIds(), entry.categoryIds(), entry.initiatorIds(), entry.publications());
+            entries.replace(cached.getKey(), entry, refreshed);
+        }
+        log.debug("Обновлены счётчики событий в {} записях кэша подборок", snapshot.size());
+    }
+
+    private static List<CompilationDto> withCounters(List<CompilationDto> compilations,
+                                                     Map<Long, Long> views,
+                                                     Map<Long, Long> confirmed) {
+        return compilations.stream()
+                .map(c -> c.toBuilder()
+                        .events(c.getEvents().stream()
+                                .map(e -> withCounters(e, views, confirmed))
+                                .collect(Collectors.toSet()))
+                        .build())
+                .toList();
+    }
+
+    private static EventShortDto withCounters(EventShortDto event,
+                                              Map<Long, Long> views,
+                                              Map<Long, Long> confirmed) {
+        return event.toBuilder()
+                .views(Math.max(event.getViews(), views.getOrDefault(event.getId(), 0L)))
+                .confirmedRequests(confirmed.getOrDefault(event.getId(), event.getConfirmedRequests()))
+                .build();
+    }
+}
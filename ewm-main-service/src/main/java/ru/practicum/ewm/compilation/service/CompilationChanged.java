@@ -0,0 +1,7 @@
+package ru.practicum.ewm.compilation.service;
+
+/**
+ * Подборка создана, изменена или удалена. Публикуется в транзакции изменения.
+ */
+public record CompilationChanged(Long compilationId) {
+}
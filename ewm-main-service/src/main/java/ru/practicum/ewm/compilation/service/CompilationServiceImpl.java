@@ -2,6 +2,7 @@ package ru.practicum.ewm.compilation.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -19,7 +20,6 @@ import ru.practicum.ewm.exception.NotFoundException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +30,8 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
+    private final CompilationCache compilationCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -47,6 +49,7 @@ public class CompilationServiceImpl implements CompilationService {
         Compilation compilation = compilationMapper.toEntity(dto);
         compilation.setEvents(events);
         Compilation saved = compilationRepository.save(compilation);
+        eventPublisher.publishEvent(new CompilationChanged(saved.getId()));
         log.info("Подборка успешно создана с ID: {}", saved.getId());
 
         return compilationMapper.toDto(saved);
@@ -59,6 +62,7 @@ public class CompilationServiceImpl implements CompilationService {
         getCompilationOrThrow(compId);
 
         compilationRepository.deleteById(compId);
+        eventPublisher.publishEvent(new CompilationChanged(compId));
         log.info("Подборка с ID {} успешно удалена", compId);
     }
 
@@ -76,6 +80,7 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         Compilation updated = compilationRepository.save(compilation);
+        eventPublisher.publishEvent(new CompilationChanged(compId));
         log.info("Подборка с ID {} успешно обновлена", updated.getId());
         return compilationMapper.toDto(updated);
     }
@@ -85,17 +90,10 @@ public class CompilationServiceImpl implements CompilationService {
         log.info("Получен запрос на получение подборок: pinned={}, from={}, size={}", pinned, from, size);
         PageRequest page = PageRequest.of(from / size, size, Sort.by("id").ascending());
 
-        List<Compilation> compilations;
-
-        if (pinned != null) {
-            compilations = compilationRepository.findAllByPinned(pinned, page);
-        } else {
-            compilations = compilationRepository.findAllBy(page);
-        }
-
-        List<CompilationDto> result = compilations.stream()
-                .map(compilationMapper::toDto)
-                .collect(Collectors.toList());
+        List<CompilationDto> result = compilationCache.get(CompilationCache.Key.page(pinned, from, size), () ->
+                pinned != null
+                        ? compilationRepository.findAllByPinned(pinned, page)
+                        : compilationRepository.findAllBy(page));
         log.info("Найдено {} подборок", result.size());
 
         return result;
@@ -104,10 +102,11 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public CompilationDto getCompilationById(Long compId) {
         log.info("Получен запрос на получение подборки по ID: {}", compId);
-        Compilation compilation = getCompilationOrThrow(compId);
+        CompilationDto compilation = compilationCache.get(CompilationCache.Key.byId(compId), () ->
+                List.of(getCompilationOrThrow(compId))).get(0);
         log.info("Подборка найдена: ID={}, title='{}'", compilation.getId(), compilation.getTitle());
 
-        return compilationMapper.toDto(compilation);
+        return compilation;
     }
 
     private Compilation getCompilationOrThrow(Long compId) {
@@ -3,6 +3,7 @@ package ru.practicum.ewm.event.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.UpdateEventAdminRequest;
@@ -20,17 +21,24 @@ import java.util.List;
 @Slf4j
 public class AdminEventController {
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final EventService eventService;
 
+    /**
+     * Поиск событий. Общее число найденных событий считается отдельным запросом только при {@code withTotal=true}
+     * и возвращается в заголовке {@value #TOTAL_COUNT_HEADER}.
+     */
     @GetMapping
-    public List<EventFullDto> searchEvents(
+    public ResponseEntity<List<EventFullDto>> searchEvents(
             @RequestParam(required = false) List<Long> users,
             @RequestParam(required = false) List<String> states,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         log.info("ADMIN: поиск событий с фильтрами");
 
@@ -38,7 +46,15 @@ public class AdminEventController {
             throw new ValidationException("rangeEnd must be after rangeStart");
         }
 
-        return eventService.searchEventsForAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+        List<EventFullDto> events =
+                eventService.searchEventsForAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (withTotal) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(
+                    eventService.countEventsForAdmin(users, states, categories, rangeStart, rangeEnd)));
+        }
+        return response.body(events);
     }
 
     @PatchMapping("/{eventId}")
@@ -4,9 +4,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.dto.EventShortPage;
 import ru.practicum.ewm.event.service.EventService;
 import ru.practicum.ewm.exception.ValidationException;
 import ru.practicum.stats.client.StatsClient;
@@ -20,19 +22,24 @@ import java.util.List;
 public class PublicEventController {
 
     private static final String APP_NAME = "ewm-main-service";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final EventService eventService;
     private final StatsClient statsClient;
 
     @GetMapping
-    public List<EventShortDto> getEvents(
+    public ResponseEntity<List<EventShortDto>> getEvents(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) Boolean paid,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(defaultValue = "false") Boolean onlyAvailable,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radius, // км
             @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "0") Integer from,
             @RequestParam(defaultValue = "10") Integer size,
             HttpServletRequest request) {
@@ -48,8 +55,14 @@ public class PublicEventController {
 
         hitStats(uri, ip);
 
-        return eventService.getPublishedEvents(text, categories, paid, rangeStart, rangeEnd,
-                onlyAvailable, sort, from, size, ip);
+        EventShortPage page = eventService.getPublishedEvents(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, lat, lon, radius, sort, after, from, size, ip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEvents());
     }
 
     @GetMapping("/{id}")
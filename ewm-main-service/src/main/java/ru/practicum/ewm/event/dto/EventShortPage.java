@@ -0,0 +1,23 @@
+package ru.practicum.ewm.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница публичного поиска событий.
+ * {@code nextCursor} равен {@code null}, если следующей страницы нет или сортировка курсор не поддерживает.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventShortPage {
+
+    private List<EventShortDto> events;
+
+    private String nextCursor;
+}
@@ -1,42 +1,41 @@
 package ru.practicum.ewm.event.mapper;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.mapper.CategoryMapper;
 import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.service.CategoryCache;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.dto.UpdateEventUserRequest;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventShortView;
 import ru.practicum.ewm.event.model.Location;
-import ru.practicum.ewm.request.model.RequestStatus;
-import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.dto.UserShortDto;
 import ru.practicum.ewm.user.mapper.UserMapper;
 import ru.practicum.ewm.user.model.User;
-import ru.practicum.stats.client.StatsClient;
-import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.ewm.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.regex.Pattern;
 
 @Component
 public class EventMapper {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final Pattern EVENT_URI_PATTERN = Pattern.compile("^/events/(\\d+)$");
 
     private final CategoryMapper categoryMapper;
     private final UserMapper userMapper;
-    private final RequestRepository requestRepository;
-    private final StatsClient statsClient;
+    private final CategoryCache categoryCache;
+    private final UserCache userCache;
 
-    public EventMapper(CategoryMapper categoryMapper, UserMapper userMapper, RequestRepository requestRepository, StatsClient statsClient) {
+    public EventMapper(CategoryMapper categoryMapper, UserMapper userMapper,
+                       CategoryCache categoryCache, UserCache userCache) {
         this.categoryMapper = categoryMapper;
         this.userMapper = userMapper;
-        this.requestRepository = requestRepository;
-        this.statsClient = statsClient;
+        this.categoryCache = categoryCache;
+        this.userCache = userCache;
     }
 
     public Event toEvent(NewEventDto dto, User initiator, Category category) {
@@ -54,19 +53,16 @@ public class EventMapper {
                 .build();
     }
 
-    public EventFullDto toFullDto(Event event) {
-        Long confirmed = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
-        Long views = getViews(event);
-
+    public EventFullDto toFullDto(Event event, Long views) {
         return EventFullDto.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation())
-                .category(categoryMapper.toDto(event.getCategory()))
-                .confirmedRequests(confirmed)
+                .category(toCategoryDto(event.getCategory()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .createdOn(event.getCreatedOn())
                 .description(event.getDescription())
                 .eventDate(event.getEventDate().format(FORMATTER))
-                .initiator(userMapper.toUserShortDto(event.getInitiator()))
+                .initiator(toUserShortDto(event.getInitiator()))
                 .location(event.getLocation())
                 .paid(event.getPaid())
                 .participantLimit(event.getParticipantLimit())
@@ -78,45 +74,32 @@ public class EventMapper {
                 .build();
     }
 
-    public EventShortDto toShortDto(Event event) {
-        Long confirmed = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
-        Long views = getViews(event);
-
+    public EventShortDto toShortDto(Event event, Long views) {
         return EventShortDto.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation())
-                .category(categoryMapper.toDto(event.getCategory()))
-                .confirmedRequests(confirmed)
+                .category(toCategoryDto(event.getCategory()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .eventDate(event.getEventDate().format(FORMATTER))
-                .initiator(userMapper.toUserShortDto(event.getInitiator()))
+                .initiator(toUserShortDto(event.getInitiator()))
                 .paid(event.getPaid())
                 .title(event.getTitle())
                 .views(views)
                 .build();
     }
 
-    private Long getViews(Event event) {
-        if (event.getPublishedOn() == null) {
-            return 0L;
-        }
-
-        try {
-            String uri = "/events/" + event.getId();
-            List<ViewStatsDto> stats = statsClient.getStats(
-                    event.getPublishedOn(),
-                    LocalDateTime.now(),
-                    List.of(uri),
-                    true
-            );
-
-            return stats.stream()
-                    .filter(s -> s.getUri().equals(uri))
-                    .map(ViewStatsDto::getHits)
-                    .findFirst()
-                    .orElse(0L);
-        } catch (Exception e) {
-            return 0L; // если stats-сервис недоступен — не падаем
-        }
+    public EventShortDto toShortDto(EventShortView event, Long views) {
+        return EventShortDto.builder()
+                .id(event.id())
+                .annotation(event.annotation())
+                .category(new CategoryDto(event.categoryId(), event.categoryName()))
+                .confirmedRequests(event.confirmedRequests())
+                .eventDate(event.eventDate().format(FORMATTER))
+                .initiator(new UserShortDto(event.initiatorId(), event.initiatorName()))
+                .paid(event.paid())
+                .title(event.title())
+                .views(views)
+                .build();
     }
 
     public void updateFromUserRequest(UpdateEventUserRequest request, Event event, Category category) {
@@ -148,4 +131,13 @@ public class EventMapper {
             event.setTitle(request.getTitle());
         }
     }
-}
\ No newline at end of file
+
+    // Категория и инициатор берутся готовыми DTO из кэша, если они там есть
+    private CategoryDto toCategoryDto(Category category) {
+        return categoryCache.get(category.getId()).orElseGet(() -> categoryMapper.toDto(category));
+    }
+
+    private UserShortDto toUserShortDto(User initiator) {
+        return userCache.get(initiator.getId()).orElseGet(() -> userMapper.toUserShortDto(initiator));
+    }
+}
@@ -2,20 +2,38 @@ package ru.practicum.ewm.event.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.ewm.category.model.Category;
 import ru.practicum.ewm.user.model.User;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_state_event_date", columnList = "state, event_date, id"),
+        @Index(name = "idx_events_state_views", columnList = "state, views DESC, id"),
+        @Index(name = "idx_events_initiator_id", columnList = "initiator_id, id"),
+        @Index(name = "idx_events_category_event_date", columnList = "category_id, event_date"),
+        @Index(name = "idx_events_state_geohash", columnList = "state, geohash")
+})
+@NamedEntityGraph(name = Event.WITH_CATEGORY_AND_INITIATOR, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 public class Event {
 
+    /**
+     * План загрузки для преобразования в DTO: категория и инициатор читаются тем же запросом.
+     */
+    public static final String WITH_CATEGORY_AND_INITIATOR = "Event.withCategoryAndInitiator";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,7 +41,7 @@ public class Event {
     @Column(nullable = false, length = 2000)
     private String annotation;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
@@ -36,6 +54,12 @@ public class Event {
     @Embedded
     private Location location;
 
+    /**
+     * {@link Geohash} места проведения для поиска по радиусу; пересчитывается при каждом сохранении события.
+     */
+    @Column(length = Geohash.PRECISION)
+    private String geohash;
+
     @Column(nullable = false)
     private Boolean paid;
 
@@ -57,7 +81,25 @@ public class Event {
 
     private LocalDateTime publishedOn;
 
-    @ManyToOne
+    /**
+     * Число подтверждённых заявок. Изменяется только атомарными запросами репозитория,
+     * поэтому {@link DynamicUpdate} не даёт сохранению события затереть его устаревшим значением.
+     */
+    @Column(name = "confirmed_requests", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long confirmedRequests = 0L;
+
+    /**
+     * Уникальные просмотры по данным сервиса статистики. Служит индексом для сортировки по просмотрам
+     * и периодически обновляется {@code EventViewsSynchronizer}, поэтому может немного отставать.
+     */
+    @Column(name = "views", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long views = 0L;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "initiator_id", nullable = false)
     private User initiator;
 
@@ -65,5 +107,13 @@ public class Event {
     protected void onCreate() {
         createdOn = LocalDateTime.now();
         state = State.PENDING;
+        updateGeohash();
+    }
+
+    @PreUpdate
+    protected void updateGeohash() {
+        geohash = location != null && location.getLat() != null && location.getLon() != null
+                ? Geohash.encode(location.getLat(), location.getLon())
+                : null;
     }
 }
\ No newline at end of file
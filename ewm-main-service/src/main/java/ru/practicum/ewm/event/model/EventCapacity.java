@@ -0,0 +1,8 @@
+package ru.practicum.ewm.event.model;
+
+/**
+ * Лимит участников события, число подтверждённых заявок и признак модерации, прочитанные из БД
+ * в обход уже загруженной сущности.
+ */
+public record EventCapacity(Long id, Integer participantLimit, Long confirmedRequests, Boolean requestModeration) {
+}
@@ -0,0 +1,9 @@
+package ru.practicum.ewm.event.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Идентификатор опубликованного события и момент публикации — всё, что нужно для запроса его просмотров.
+ */
+public record EventPublication(Long id, LocalDateTime publishedOn) {
+}
@@ -0,0 +1,22 @@
+package ru.practicum.ewm.event.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля события для {@code EventShortDto} с категорией и инициатором, прочитанные одним запросом
+ * без загрузки сущностей: без описания и места проведения и без снимков для dirty checking.
+ * {@code views} — индекс просмотров для курсора сортировки, {@code publishedOn} — для запроса статистики.
+ */
+public record EventShortView(Long id,
+                             String annotation,
+                             Long categoryId,
+                             String categoryName,
+                             Long confirmedRequests,
+                             LocalDateTime eventDate,
+                             Long initiatorId,
+                             String initiatorName,
+                             Boolean paid,
+                             String title,
+                             Long views,
+                             LocalDateTime publishedOn) {
+}
@@ -0,0 +1,142 @@
+package ru.practicum.ewm.event.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash места проведения события — строка, у которой общий префикс означает общую ячейку сетки.
+ * <p>
+ * Хранится в столбце {@code events.geohash} с B-tree индексом: круг поиска покрывается ячейкой центра
+ * и восемью соседними, а каждая ячейка — это диапазон строк {@code [prefix, следующий prefix)}.
+ * Так поиск по радиусу идёт по индексу на любой базе, без пространственных расширений.
+ */
+public final class Geohash {
+
+    public static final int PRECISION = 12;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE_LAT = 110.574;
+    private static final double KM_PER_DEGREE_LON_AT_EQUATOR = 111.320;
+    private static final double MAX_LATITUDE = 89.9;
+
+    /**
+     * Диапазон значений geohash {@code [from, to)}; {@code to == null} — без верхней границы.
+     */
+    public record Range(String from, String to) {
+    }
+
+    private Geohash() {
+    }
+
+    public static String encode(double lat, double lon) {
+        return encode(lat, lon, PRECISION);
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Диапазоны geohash, которые вместе покрывают круг радиусом {@code radiusKm} вокруг точки.
+     * Пустой список означает, что круг больше самой крупной ячейки или подходит к полюсу, где ячейки
+     * сужаются до нуля, и ограничивать поиск по geohash нельзя.
+     */
+    public static List<Range> cover(double lat, double lon, double radiusKm) {
+        // Ширина ячейки в километрах убывает к полюсам: берём широту края круга, дальнего от экватора
+        double farLat = Math.abs(lat) + radiusKm / KM_PER_DEGREE_LAT;
+        if (farLat >= MAX_LATITUDE) {
+            return List.of();
+        }
+        int precision = 0;
+        for (int p = 1; p <= PRECISION; p++) {
+            double heightKm = cellHeight(p) * KM_PER_DEGREE_LAT;
+            double widthKm = cellWidth(p) * KM_PER_DEGREE_LON_AT_EQUATOR * Math.cos(Math.toRadians(farLat));
+            if (heightKm < radiusKm || widthKm < radiusKm) break;
+            precision = p;
+        }
+        if (precision == 0) {
+            return List.of();
+        }
+
+        // Круг не выходит за ячейку центра дальше, чем на одну ячейку в каждую сторону
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            double cellLat = lat + dLat * height;
+            if (cellLat < -90 || cellLat > 90) continue;
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                cells.add(encode(cellLat, normalizeLongitude(lon + dLon * width), precision));
+            }
+        }
+
+        List<Range> ranges = new ArrayList<>(cells.size());
+        for (String cell : cells) {
+            ranges.add(new Range(cell, next(cell)));
+        }
+        return ranges;
+    }
+
+    private static double cellHeight(int precision) {
+        return 180 / Math.pow(2, (5 * precision) / 2);
+    }
+
+    private static double cellWidth(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    private static double normalizeLongitude(double lon) {
+        double normalized = (lon + 180) % 360;
+        return (normalized < 0 ? normalized + 360 : normalized) - 180;
+    }
+
+    /**
+     * Наименьшая строка больше всех строк с префиксом {@code prefix}, или {@code null}, если такой нет.
+     */
+    private static String next(String prefix) {
+        StringBuilder next = new StringBuilder(prefix);
+        for (int i = next.length() - 1; i >= 0; i--) {
+            int index = BASE32.indexOf(next.charAt(i));
+            if (index < BASE32.length() - 1) {
+                next.setCharAt(i, BASE32.charAt(index + 1));
+                return next.toString();
+            }
+            next.setLength(i);
+        }
+        return null;
+    }
+}
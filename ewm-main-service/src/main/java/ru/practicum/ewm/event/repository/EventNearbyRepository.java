@@ -0,0 +1,20 @@
+package ru.practicum.ewm.event.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventShortView;
+
+import java.util.List;
+
+/**
+ * Поиск событий с сортировкой по расстоянию от точки: ни производные запросы, ни {@code @Query}
+ * не позволяют собрать условия по радиусу под доступный на базе индекс.
+ */
+public interface EventNearbyRepository {
+
+    /**
+     * События под условием {@code spec} в виде {@link EventShortView}, от ближайших к точке к дальним.
+     */
+    List<EventShortView> findShortViewsByDistance(Specification<Event> spec, double lat, double lon,
+                                                  int offset, int limit);
+}
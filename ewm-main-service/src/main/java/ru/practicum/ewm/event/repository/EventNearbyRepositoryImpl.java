@@ -0,0 +1,44 @@
+package ru.practicum.ewm.event.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventShortView;
+import ru.practicum.ewm.user.model.User;
+
+import java.util.List;
+
+class EventNearbyRepositoryImpl implements EventNearbyRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EventShortView> findShortViewsByDistance(Specification<Event> spec, double lat, double lon,
+                                                         int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortView> query = cb.createQuery(EventShortView.class);
+        Root<Event> root = query.from(Event.class);
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
+
+        query.select(cb.construct(EventShortView.class, EventShortViewColumns.paths(root, category, initiator)));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(EventSpecifications.distance(root, cb, lat, lon)), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,61 +1,248 @@
 package ru.practicum.ewm.event.repository;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventCapacity;
+import ru.practicum.ewm.event.model.EventPublication;
+import ru.practicum.ewm.event.model.EventShortView;
 import ru.practicum.ewm.event.model.State;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventSliceRepository, EventNearbyRepository {
 
-    List<Event> findAllByInitiatorId(Long userId, Pageable pageable);
+    /**
+     * Аргументы конструктора {@link ru.practicum.ewm.event.model.EventShortView} в его порядке.
+     * Алиасы: {@code e} — событие, {@code c} — категория, {@code i} — инициатор. Константа нужна аннотациям
+     * {@code @Query} и должна совпадать с {@link EventShortViewColumns#jpql()}, из которого строит выборку
+     * Criteria-запрос {@link EventNearbyRepositoryImpl}.
+     */
+    String SHORT_VIEW_COLUMNS = "e.id, e.annotation, c.id, c.name, e.confirmedRequests, e.eventDate, "
+            + "i.id, i.name, e.paid, e.title, e.views, e.publishedOn";
 
+    /**
+     * Начало запросов списков для {@code EventShortDto}: только нужные краткому DTO столбцы события,
+     * категории и инициатора. Алиас события — {@code e}.
+     */
+    String SHORT_VIEW = "SELECT new ru.practicum.ewm.event.model.EventShortView(" + SHORT_VIEW_COLUMNS + ") "
+            + "FROM Event e JOIN e.category c JOIN e.initiator i ";
+
+    @Query(SHORT_VIEW + "WHERE i.id = :userId")
+    List<EventShortView> findShortViewsByInitiatorId(@Param("userId") Long userId, Pageable pageable);
+
+    // Категория и инициатор загружаются LAZY: запросы, результат которых преобразуется в DTO,
+    // читают их тем же SELECT по графу Event.WITH_CATEGORY_AND_INITIATOR
+
+    @Override
+    @EntityGraph(Event.WITH_CATEGORY_AND_INITIATOR)
+    Optional<Event> findById(Long id);
+
+    @EntityGraph(Event.WITH_CATEGORY_AND_INITIATOR)
     Optional<Event> findByInitiatorIdAndId(Long userId, Long eventId);
 
-    @Query(value = "SELECT e FROM Event e " +
-            "JOIN FETCH e.initiator i " +
-            "JOIN FETCH e.category c " +
-            "WHERE (:users IS NULL OR i.id IN :users) " +
-            "AND (:states IS NULL OR e.state IN :states) " +
-            "AND (:categories IS NULL OR c.id IN :categories) " +
-            "AND (cast(:rangeStart as timestamp) IS NULL OR e.eventDate >= :rangeStart) " +
-            "AND (cast(:rangeEnd as timestamp) IS NULL OR e.eventDate <= :rangeEnd) ")
-    Page<Event> findAllByAdminFilters(@Param("users") List<Long> users,
-                                      @Param("states") List<String> states,
-                                      @Param("categories") List<Long> categories,
-                                      @Param("rangeStart") LocalDateTime rangeStart,
-                                      @Param("rangeEnd") LocalDateTime rangeEnd,
-                                      Pageable pageable);
+    /**
+     * Событие инициатора с блокировкой строки до конца транзакции: модерация заявок одного события
+     * выполняется последовательно и видит актуальный счётчик подтверждённых заявок.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :eventId AND e.initiator.id = :userId")
+    Optional<Event> findByInitiatorIdAndIdForUpdate(@Param("userId") Long userId, @Param("eventId") Long eventId);
 
     // === Public API: поиск опубликованных событий ===
-    @Query("""
-            SELECT e FROM Event e
+    // text — значение, подготовленное EventTextSearch для функции fts_match (см. EventSearchFunctions)
+    @Query(SHORT_VIEW + """
+            WHERE e.state = 'PUBLISHED'
+              AND (:text IS NULL OR fts_match(e.title, e.annotation, e.description, CAST(:text AS string)) = true)
+              AND (:categories IS NULL OR e.category.id IN :categories)
+              AND (:paid IS NULL OR e.paid = :paid)
+              AND (:onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
+              AND e.eventDate >= :start
+              AND e.eventDate <= :end
+            ORDER BY e.eventDate ASC, e.id ASC
+            """)
+    List<EventShortView> findPublicEvents(
+            @Param("text") String text,
+            @Param("categories") List<Long> categories,
+            @Param("paid") Boolean paid,
+            @Param("onlyAvailable") boolean onlyAvailable,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable);
+
+    // === Public API: поиск опубликованных событий по курсору (eventDate, id) ===
+    @Query(SHORT_VIEW + """
+            WHERE e.state = 'PUBLISHED'
+              AND (:text IS NULL OR fts_match(e.title, e.annotation, e.description, CAST(:text AS string)) = true)
+              AND (:categories IS NULL OR e.category.id IN :categories)
+              AND (:paid IS NULL OR e.paid = :paid)
+              AND (:onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
+              AND e.eventDate >= :start
+              AND e.eventDate <= :end
+              AND e.eventDate >= :afterDate
+              AND (e.eventDate > :afterDate OR e.id > :afterId)
+            ORDER BY e.eventDate ASC, e.id ASC
+            """)
+    List<EventShortView> findPublicEventsAfter(
+            @Param("text") String text,
+            @Param("categories") List<Long> categories,
+            @Param("paid") Boolean paid,
+            @Param("onlyAvailable") boolean onlyAvailable,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    // === Public API: поиск опубликованных событий по убыванию просмотров ===
+    @Query(SHORT_VIEW + """
             WHERE e.state = 'PUBLISHED'
-              AND (:text IS NULL OR
-                   LOWER(e.annotation) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')) OR
-                   LOWER(e.title) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')) OR
-                   LOWER(e.description) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')))
+              AND (:text IS NULL OR fts_match(e.title, e.annotation, e.description, CAST(:text AS string)) = true)
               AND (:categories IS NULL OR e.category.id IN :categories)
               AND (:paid IS NULL OR e.paid = :paid)
+              AND (:onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
               AND e.eventDate >= :start
               AND e.eventDate <= :end
-            ORDER BY e.eventDate ASC
+            ORDER BY e.views DESC, e.id ASC
             """)
-    List<Event> findPublicEvents(
+    List<EventShortView> findPublicEventsByViews(
             @Param("text") String text,
             @Param("categories") List<Long> categories,
             @Param("paid") Boolean paid,
+            @Param("onlyAvailable") boolean onlyAvailable,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Pageable pageable);
+
+    // === Public API: поиск по убыванию просмотров по курсору (views, id) ===
+    @Query(SHORT_VIEW + """
+            WHERE e.state = 'PUBLISHED'
+              AND (:text IS NULL OR fts_match(e.title, e.annotation, e.description, CAST(:text AS string)) = true)
+              AND (:categories IS NULL OR e.category.id IN :categories)
+              AND (:paid IS NULL OR e.paid = :paid)
+              AND (:onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
+              AND e.eventDate >= :start
+              AND e.eventDate <= :end
+              AND e.views <= :afterViews
+              AND (e.views < :afterViews OR e.id > :afterId)
+            ORDER BY e.views DESC, e.id ASC
+            """)
+    List<EventShortView> findPublicEventsByViewsAfter(
+            @Param("text") String text,
+            @Param("categories") List<Long> categories,
+            @Param("paid") Boolean paid,
+            @Param("onlyAvailable") boolean onlyAvailable,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterViews") Long afterViews,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    // === Public API: полнотекстовый поиск опубликованных событий по убыванию релевантности ===
+    @Query(SHORT_VIEW + """
+            WHERE e.state = 'PUBLISHED'
+              AND fts_match(e.title, e.annotation, e.description, CAST(:text AS string)) = true
+              AND (:categories IS NULL OR e.category.id IN :categories)
+              AND (:paid IS NULL OR e.paid = :paid)
+              AND (:onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
+              AND e.eventDate >= :start
+              AND e.eventDate <= :end
+            ORDER BY fts_rank(e.title, e.annotation, e.description, CAST(:text AS string)) DESC, e.id ASC
+            """)
+    List<EventShortView> findPublicEventsByRelevance(
+            @Param("text") String text,
+            @Param("categories") List<Long> categories,
+            @Param("paid") Boolean paid,
+            @Param("onlyAvailable") boolean onlyAvailable,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
             Pageable pageable);
 
     // === Public API: получение одного опубликованного события ===
+    @EntityGraph(Event.WITH_CATEGORY_AND_INITIATOR)
     @Query("SELECT e FROM Event e WHERE e.id = :id AND e.state = :state")
     Optional<Event> findByIdAndState(@Param("id") Long id, @Param("state") State state);
-}
\ No newline at end of file
+
+    // === Счётчик подтверждённых заявок ===
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :delta WHERE e.id = :eventId")
+    int addConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") long delta);
+
+    /**
+     * Занимает одно место участника, если лимит ещё не достигнут. Лимит проверяется в самом UPDATE:
+     * конкурирующие заявки ждут друг друга только на время этого оператора и проверяют условие заново,
+     * поэтому лимит не превышается без блокировки события на всю транзакцию. Заявки в события без лимита
+     * увеличивают счётчик через {@link #addConfirmedRequests}; условие {@code participantLimit = 0} оставлено
+     * на случай снятия лимита во время заявки.
+     *
+     * @return 1, если место занято, 0 — если свободных мест нет
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + 1
+            WHERE e.id = :eventId AND (e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)
+            """)
+    int reserveSeat(@Param("eventId") Long eventId);
+
+    @Query("""
+            SELECT new ru.practicum.ewm.event.model.EventCapacity(e.id, e.participantLimit, e.confirmedRequests,
+                                                                  e.requestModeration)
+            FROM Event e WHERE e.id IN :eventIds
+            """)
+    List<EventCapacity> findCapacities(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Текущие лимит и счётчик события с блокировкой его строки до конца транзакции.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT new ru.practicum.ewm.event.model.EventCapacity(e.id, e.participantLimit, e.confirmedRequests,
+                                                                  e.requestModeration)
+            FROM Event e WHERE e.id = :eventId
+            """)
+    Optional<EventCapacity> findCapacityForUpdate(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("""
+            UPDATE Event e
+            SET e.confirmedRequests = (SELECT COUNT(r) FROM ParticipationRequest r
+                                       WHERE r.event.id = e.id AND r.status = 'CONFIRMED')
+            WHERE e.confirmedRequests <> (SELECT COUNT(r) FROM ParticipationRequest r
+                                          WHERE r.event.id = e.id AND r.status = 'CONFIRMED')
+            """)
+    int reconcileConfirmedRequests();
+
+    // === Индекс просмотров ===
+    @Query("""
+            SELECT new ru.practicum.ewm.event.model.EventPublication(e.id, e.publishedOn) FROM Event e
+            WHERE e.state = 'PUBLISHED' AND e.id > :afterId
+            ORDER BY e.id ASC
+            """)
+    List<EventPublication> findPublishedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new ru.practicum.ewm.event.model.EventPublication(e.id, e.publishedOn) FROM Event e
+            WHERE e.state = 'PUBLISHED' AND e.id IN :ids
+            """)
+    List<EventPublication> findPublished(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Поднимает счётчик просмотров до нового значения. Меньшее значение не записывается: так временно
+     * пустой ответ сервиса статистики не обнуляет рейтинг событий.
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.views = :views WHERE e.id = :eventId AND e.views < :views")
+    int raiseViews(@Param("eventId") Long eventId, @Param("views") long views);
+}
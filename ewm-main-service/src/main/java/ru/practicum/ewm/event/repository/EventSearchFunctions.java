@@ -0,0 +1,83 @@
+package ru.practicum.ewm.event.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Регистрирует в Hibernate функции полнотекстового поиска событий, которые можно вызывать из JPQL:
+ * <ul>
+ * <li>{@code fts_match(title, annotation, description, query)} — событие подходит под поисковый запрос;</li>
+ * <li>{@code fts_rank(title, annotation, description, query)} — релевантность события запросу.</li>
+ * </ul>
+ * На PostgreSQL функции раскрываются в {@code tsvector @@ tsquery} по тому же выражению, по которому построен
+ * GIN-индекс {@code idx_events_fts}, поэтому поиск идёт по индексу. На остальных базах (H2 в тестах)
+ * используется {@code LIKE} по трём полям. Формат {@code query} для каждого случая готовит {@code EventTextSearch}.
+ * <p>
+ * И функции поиска по расстоянию:
+ * <ul>
+ * <li>{@code geo_distance(lat1, lon1, lat2, lon2)} — расстояние между точками в километрах (формула гаверсинусов),
+ * на любой базе;</li>
+ * <li>{@code earth_within(lat, lon, centerLat, centerLon, radiusKm)} — точка в квадрате вокруг круга поиска.
+ * Только на PostgreSQL с расширением earthdistance: раскрывается в {@code earth_box(...) @> ll_to_earth(lat, lon)}
+ * по выражению GiST-индекса {@code idx_events_earth}. Вызывать её можно, только если {@code EventGeoSearch}
+ * смог создать индекс.</li>
+ * </ul>
+ */
+public class EventSearchFunctions implements FunctionContributor {
+
+    public static final String TS_CONFIG = "russian";
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Поисковый вектор события. Заголовок весит больше аннотации, аннотация — больше описания.
+     */
+    public static String searchVector(String title, String annotation, String description) {
+        return "(setweight(to_tsvector('" + TS_CONFIG + "', coalesce(" + title + ", '')), 'A')"
+                + " || setweight(to_tsvector('" + TS_CONFIG + "', coalesce(" + annotation + ", '')), 'B')"
+                + " || setweight(to_tsvector('" + TS_CONFIG + "', coalesce(" + description + ", '')), 'C'))";
+    }
+
+    /**
+     * Точка на поверхности Земли для расширения earthdistance.
+     */
+    public static String earthPoint(String lat, String lon) {
+        return "ll_to_earth(" + lat + ", " + lon + ")";
+    }
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        SqmFunctionRegistry registry = contributions.getFunctionRegistry();
+        BasicType<Boolean> booleanType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        if (contributions.getDialect() instanceof PostgreSQLDialect) {
+            String vector = searchVector("?1", "?2", "?3");
+            String query = "to_tsquery('" + TS_CONFIG + "', ?4)";
+            registry.registerPattern("fts_match", "(" + vector + " @@ " + query + ")", booleanType);
+            registry.registerPattern("fts_rank", "ts_rank(" + vector + ", " + query + ")", doubleType);
+        } else {
+            registry.registerPattern("fts_match",
+                    "(lower(?1) like ?4 or lower(?2) like ?4 or lower(?3) like ?4)", booleanType);
+            registry.registerPattern("fts_rank",
+                    "(case when lower(?1) like ?4 then 3.0 when lower(?2) like ?4 then 2.0"
+                            + " when lower(?3) like ?4 then 1.0 else 0.0 end)", doubleType);
+        }
+
+        registry.registerPattern("geo_distance", "(2 * " + EARTH_RADIUS_KM + " * asin(least(1, sqrt("
+                + "power(sin(radians(?3 - ?1) / 2), 2)"
+                + " + cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2)))))", doubleType);
+
+        if (contributions.getDialect() instanceof PostgreSQLDialect) {
+            registry.registerPattern("earth_within",
+                    "(earth_box(" + earthPoint("?3", "?4") + ", ?5 * 1000) @> " + earthPoint("?1", "?2") + ")",
+                    booleanType);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.ewm.event.repository;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import ru.practicum.ewm.event.model.EventShortView;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Аргументы конструктора {@link EventShortView} в его порядке: сущность-источник и её атрибут.
+ * <p>
+ * Из этого списка строятся выборки Criteria-запросов, а JPQL-строка {@link EventRepository#SHORT_VIEW_COLUMNS},
+ * которую аннотации {@code @Query} требуют константой, обязана совпадать с {@link #jpql()}.
+ */
+final class EventShortViewColumns {
+
+    enum Source {
+        EVENT("e"),
+        CATEGORY("c"),
+        INITIATOR("i");
+
+        private final String alias;
+
+        Source(String alias) {
+            this.alias = alias;
+        }
+    }
+
+    record Column(Source source, String attribute) {
+    }
+
+    static final List<Column> COLUMNS = List.of(
+            new Column(Source.EVENT, "id"),
+            new Column(Source.EVENT, "annotation"),
+            new Column(Source.CATEGORY, "id"),
+            new Column(Source.CATEGORY, "name"),
+            new Column(Source.EVENT, "confirmedRequests"),
+            new Column(Source.EVENT, "eventDate"),
+            new Column(Source.INITIATOR, "id"),
+            new Column(Source.INITIATOR, "name"),
+            new Column(Source.EVENT, "paid"),
+            new Column(Source.EVENT, "title"),
+            new Column(Source.EVENT, "views"),
+            new Column(Source.EVENT, "publishedOn"));
+
+    private EventShortViewColumns() {
+    }
+
+    /**
+     * Список столбцов для JPQL с алиасами {@code e}, {@code c} и {@code i}.
+     */
+    static String jpql() {
+        return COLUMNS.stream()
+                .map(column -> column.source().alias + "." + column.attribute())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Пути Criteria от переданных события, категории и инициатора.
+     */
+    static Path<?>[] paths(From<?, ?> event, From<?, ?> category, From<?, ?> initiator) {
+        return COLUMNS.stream()
+                .map(column -> switch (column.source()) {
+                    case EVENT -> event.get(column.attribute());
+                    case CATEGORY -> category.get(column.attribute());
+                    case INITIATOR -> initiator.get(column.attribute());
+                })
+                .toArray(Path<?>[]::new);
+    }
+}
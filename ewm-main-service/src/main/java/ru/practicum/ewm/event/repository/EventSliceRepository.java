@@ -0,0 +1,20 @@
+package ru.practicum.ewm.event.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.event.model.Event;
+
+/**
+ * Постраничный поиск событий по {@link Specification} без запроса {@code COUNT}.
+ * {@code JpaSpecificationExecutor} умеет возвращать только {@code Page}, для которой Spring Data
+ * считает общее число строк со всеми условиями поиска.
+ */
+public interface EventSliceRepository {
+
+    /**
+     * Страница событий с категорией и инициатором. Наличие следующей страницы определяется
+     * по одной лишней строке выборки.
+     */
+    Slice<Event> findSlice(Specification<Event> spec, Pageable pageable);
+}
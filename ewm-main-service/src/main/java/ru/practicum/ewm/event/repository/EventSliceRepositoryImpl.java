@@ -0,0 +1,46 @@
+package ru.practicum.ewm.event.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.ewm.event.model.Event;
+
+import java.util.List;
+
+class EventSliceRepositoryImpl implements EventSliceRepository {
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Event> findSlice(Specification<Event> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Event> events = entityManager.createQuery(query)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Event.WITH_CATEGORY_AND_INITIATOR))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = events.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? events.subList(0, pageable.getPageSize()) : events, pageable, hasNext);
+    }
+}
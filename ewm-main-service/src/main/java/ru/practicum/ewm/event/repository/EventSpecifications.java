@@ -0,0 +1,138 @@
+package ru.practicum.ewm.event.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Geohash;
+import ru.practicum.ewm.event.model.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Условия поиска событий, собираемые из переданных фильтров.
+ * <p>
+ * В SQL попадают только заданные фильтры, без {@code (:param IS NULL OR ...)}: PostgreSQL строит план
+ * под конкретный набор условий и использует индексы {@code (state, event_date)}, {@code (initiator_id, id)}
+ * и {@code (category_id, event_date)} вместо последовательного чтения таблицы.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    /**
+     * Фильтры админского поиска; {@code null} или пустой список означает, что фильтр не задан.
+     */
+    public static Specification<Event> adminFilters(Collection<Long> users,
+                                                    Collection<State> states,
+                                                    Collection<Long> categories,
+                                                    LocalDateTime rangeStart,
+                                                    LocalDateTime rangeEnd) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (users != null && !users.isEmpty()) {
+                predicates.add(root.get("initiator").get("id").in(users));
+            }
+            if (states != null && !states.isEmpty()) {
+                predicates.add(root.get("state").in(states));
+            }
+            if (categories != null && !categories.isEmpty()) {
+                predicates.add(root.get("category").get("id").in(categories));
+            }
+            if (rangeStart != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), rangeStart));
+            }
+            if (rangeEnd != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), rangeEnd));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Фильтры публичного поиска опубликованных событий, те же, что в запросах {@code findPublicEvents*}.
+     *
+     * @param text значение, подготовленное {@code EventTextSearch}, или {@code null}
+     */
+    public static Specification<Event> publicFilters(String text,
+                                                     Collection<Long> categories,
+                                                     Boolean paid,
+                                                     boolean onlyAvailable,
+                                                     LocalDateTime start,
+                                                     LocalDateTime end) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("state"), State.PUBLISHED));
+            if (text != null) {
+                predicates.add(cb.isTrue(cb.function("fts_match", Boolean.class,
+                        root.get("title"), root.get("annotation"), root.get("description"), cb.literal(text))));
+            }
+            if (categories != null && !categories.isEmpty()) {
+                predicates.add(root.get("category").get("id").in(categories));
+            }
+            if (paid != null) {
+                predicates.add(cb.equal(root.get("paid"), paid));
+            }
+            if (onlyAvailable) {
+                predicates.add(cb.or(
+                        cb.equal(root.get("participantLimit"), 0),
+                        cb.lessThan(root.get("confirmedRequests"), root.get("participantLimit").as(Long.class))));
+            }
+            predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), start));
+            predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), end));
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Место проведения не дальше {@code radiusKm} от точки. Точное условие по расстоянию индекс не использует,
+     * поэтому добавляется к одному из индексных условий: {@link #withinEarthBox} или {@link #withinGeohash}.
+     */
+    public static Specification<Event> withinDistance(double lat, double lon, double radiusKm) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(distance(root, cb, lat, lon), radiusKm);
+    }
+
+    /**
+     * Кандидаты по GiST-индексу earthdistance; только на PostgreSQL с установленным расширением.
+     */
+    public static Specification<Event> withinEarthBox(double lat, double lon, double radiusKm) {
+        return (root, query, cb) -> cb.isTrue(cb.function("earth_within", Boolean.class,
+                root.get("location").get("lat"), root.get("location").get("lon"),
+                cb.literal(lat), cb.literal(lon), cb.literal(radiusKm)));
+    }
+
+    /**
+     * Кандидаты по B-tree индексу {@code (state, geohash)}: значение geohash попадает в один из диапазонов.
+     * Пустой список диапазонов не ограничивает выборку.
+     */
+    public static Specification<Event> withinGeohash(List<Geohash.Range> ranges) {
+        return (root, query, cb) -> {
+            if (ranges.isEmpty()) return null;
+            Path<String> geohash = root.get("geohash");
+            Predicate[] cells = ranges.stream()
+                    .map(range -> range.to() == null
+                            ? cb.greaterThanOrEqualTo(geohash, range.from())
+                            : cb.and(cb.greaterThanOrEqualTo(geohash, range.from()), cb.lessThan(geohash, range.to())))
+                    .toArray(Predicate[]::new);
+            return cb.or(cells);
+        };
+    }
+
+    /**
+     * Расстояние в километрах от места проведения события до точки.
+     */
+    public static Expression<Double> distance(Root<Event> root,
+                                              CriteriaBuilder cb,
+                                              double lat,
+                                              double lon) {
+        return cb.function("geo_distance", Double.class,
+                root.get("location").get("lat"), root.get("location").get("lon"), cb.literal(lat), cb.literal(lon));
+    }
+}
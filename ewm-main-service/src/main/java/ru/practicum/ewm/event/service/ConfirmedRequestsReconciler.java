@@ -0,0 +1,32 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.event.repository.EventRepository;
+
+/**
+ * Периодически сверяет счётчик {@code confirmed_requests} событий с фактическим числом
+ * подтверждённых заявок и исправляет расхождения.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedRequestsReconciler {
+
+    private final EventRepository eventRepository;
+
+    @Scheduled(initialDelayString = "${ewm.events.confirmed-requests.reconcile-interval:PT10M}",
+            fixedDelayString = "${ewm.events.confirmed-requests.reconcile-interval:PT10M}")
+    @Transactional
+    public void reconcile() {
+        int repaired = eventRepository.reconcileConfirmedRequests();
+        if (repaired > 0) {
+            log.warn("Исправлен счётчик подтверждённых заявок у {} событий", repaired);
+        } else {
+            log.debug("Счётчики подтверждённых заявок согласованы");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.ewm.event.service;
+
+/**
+ * Поля события изменены инициатором или администратором. Публикуется в транзакции изменения.
+ */
+public record EventChanged(Long eventId) {
+}
@@ -0,0 +1,82 @@
+package ru.practicum.ewm.event.service;
+
+import ru.practicum.ewm.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор постраничного поиска опубликованных событий.
+ * <p>
+ * Хранит ключ сортировки последнего отданного события и его id: следующая страница начинается
+ * строго после этой пары, поэтому база переходит к ней по индексу, не пропуская строки через OFFSET.
+ * Клиенту курсор передаётся непрозрачной строкой в base64url.
+ *
+ * @param eventDate дата события; заполнена для {@link Type#EVENT_DATE}
+ * @param views     просмотры события; заполнены для {@link Type#VIEWS}
+ */
+public record EventCursor(Type type, LocalDateTime eventDate, Long views, long id) {
+
+    /**
+     * Ключ сортировки, по которому выдан курсор.
+     */
+    public enum Type {
+        EVENT_DATE("d"),
+        VIEWS("v");
+
+        private final String code;
+
+        Type(String code) {
+            this.code = code;
+        }
+
+        static Type ofCode(String code) {
+            for (Type type : values()) {
+                if (type.code.equals(code)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cursor type: " + code);
+        }
+    }
+
+    private static final String SEPARATOR = "|";
+
+    public static EventCursor afterEventDate(LocalDateTime eventDate, long id) {
+        return new EventCursor(Type.EVENT_DATE, eventDate, null, id);
+    }
+
+    public static EventCursor afterViews(long views, long id) {
+        return new EventCursor(Type.VIEWS, null, views, id);
+    }
+
+    public String encode() {
+        Object key = type == Type.VIEWS ? views : eventDate;
+        String raw = type.code + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента.
+     *
+     * @throws ValidationException если строка не является курсором, выданным сервисом
+     */
+    public static EventCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            long id = Long.parseLong(parts[2]);
+            return switch (Type.ofCode(parts[0])) {
+                case EVENT_DATE -> afterEventDate(LocalDateTime.parse(parts[1]), id);
+                case VIEWS -> afterViews(Long.parseLong(parts[1]), id);
+            };
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + value);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.ewm.event.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Geohash;
+import ru.practicum.ewm.event.repository.EventSearchFunctions;
+import ru.practicum.ewm.event.repository.EventSpecifications;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Выбирает индекс для поиска событий по радиусу.
+ * <p>
+ * На PostgreSQL при старте устанавливается расширение earthdistance, а GiST-индекс по точкам мест проведения
+ * строится без блокировки записи, когда приложение уже запущено. Если это не удалось (нет прав на расширение) или база другая, кандидаты отбираются
+ * по B-tree индексу {@code (state, geohash)}. В обоих случаях точное расстояние проверяется поверх индексного
+ * условия. Событиям, сохранённым до появления столбца {@code geohash}, он заполняется при старте.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class EventGeoSearch {
+
+    private static final String INDEX_NAME = "idx_events_earth";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean earthIndex;
+
+    @PostConstruct
+    public void init() {
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres")));
+        if (postgres) {
+            try {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS cube");
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS earthdistance");
+                earthIndex = true;
+            } catch (DataAccessException e) {
+                log.warn("Не удалось подключить earthdistance: {}", e.getMessage());
+            }
+        }
+        if (earthIndex) {
+            log.info("Поиск событий по радиусу использует индекс {}", INDEX_NAME);
+        } else {
+            log.info("Поиск событий по радиусу использует индекс по geohash");
+        }
+        backfillGeohash();
+    }
+
+    /**
+     * Строит индекс, когда приложение уже принимает запросы: на большой таблице это долго.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        if (!earthIndex) {
+            return;
+        }
+        try {
+            PostgresIndexes.createConcurrently(jdbcTemplate, INDEX_NAME, "ON events USING GIST ("
+                    + EventSearchFunctions.earthPoint("lat", "lon") + ")");
+        } catch (DataAccessException e) {
+            log.error("Не удалось построить индекс {}: {}", INDEX_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Условие «не дальше {@code radiusKm} километров от точки» с индексным отбором кандидатов.
+     */
+    public Specification<Event> within(double lat, double lon, double radiusKm) {
+        Specification<Event> candidates = earthIndex
+                ? EventSpecifications.withinEarthBox(lat, lon, radiusKm)
+                : EventSpecifications.withinGeohash(Geohash.cover(lat, lon, radiusKm));
+        return candidates.and(EventSpecifications.withinDistance(lat, lon, radiusKm));
+    }
+
+    private void backfillGeohash() {
+        int updated = 0;
+        List<Object[]> batch;
+        do {
+            batch = jdbcTemplate.query("SELECT id, lat, lon FROM events"
+                            + " WHERE geohash IS NULL AND lat IS NOT NULL AND lon IS NOT NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{
+                            Geohash.encode(rs.getDouble("lat"), rs.getDouble("lon")), rs.getLong("id")},
+                    BACKFILL_BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE events SET geohash = ? WHERE id = ?", batch);
+                updated += batch.size();
+            }
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Заполнен geohash у {} событий", updated);
+        }
+    }
+}
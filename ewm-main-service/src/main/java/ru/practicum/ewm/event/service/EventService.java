@@ -15,6 +15,16 @@ public interface EventService {
                                             Integer from,
                                             Integer size);
 
+    /**
+     * Общее число событий под фильтрами админского поиска. Считается отдельным запросом,
+     * только если клиент его запросил.
+     */
+    long countEventsForAdmin(List<Long> users,
+                             List<String> states,
+                             List<Long> categories,
+                             LocalDateTime rangeStart,
+                             LocalDateTime rangeEnd);
+
     EventFullDto updateEventByAdmin(Long eventId, UpdateEventAdminRequest request);
 
     EventFullDto createEventByInitiator(Long userId, NewEventDto dto);
@@ -25,16 +35,20 @@ public interface EventService {
 
     EventFullDto updateEventByInitiator(Long userId, Long eventId, UpdateEventUserRequest request);
 
-    List<EventShortDto> getPublishedEvents(String text,
-                                           List<Long> categories,
-                                           Boolean paid,
-                                           LocalDateTime rangeStart,
-                                           LocalDateTime rangeEnd,
-                                           Boolean onlyAvailable,
-                                           String sort,
-                                           Integer from,
-                                           Integer size,
-                                           String ip);
+    EventShortPage getPublishedEvents(String text,
+                                      List<Long> categories,
+                                      Boolean paid,
+                                      LocalDateTime rangeStart,
+                                      LocalDateTime rangeEnd,
+                                      Boolean onlyAvailable,
+                                      Double lat,
+                                      Double lon,
+                                      Double radius,
+                                      String sort,
+                                      String after,
+                                      Integer from,
+                                      Integer size,
+                                      String ip);
 
     EventFullDto getPublishedEventById(Long id, String ip);
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package ru.practicum.ewm.event.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -11,25 +13,21 @@ import ru.practicum.ewm.category.repository.CategoryRepository;
 import ru.practicum.ewm.event.dto.*;
 import ru.practicum.ewm.event.mapper.EventMapper;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventShortView;
 import ru.practicum.ewm.event.model.State;
 import ru.practicum.ewm.event.model.StateActionUser;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.repository.EventSpecifications;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.exception.ValidationException;
-import ru.practicum.ewm.request.model.RequestStatus;
-import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.request.service.WaitlistPromoter;
 import ru.practicum.ewm.user.model.User;
 import ru.practicum.ewm.user.repository.UserRepository;
-import ru.practicum.stats.client.StatsClient;
-import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static org.springframework.data.domain.PageRequest.of;
 import static org.springframework.data.domain.Sort.by;
@@ -43,14 +41,16 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final RequestRepository requestRepository;
     private final EventMapper eventMapper;
-    private final StatsClient statsClient;
+    private final EventStatsEnricher eventStatsEnricher;
+    private final EventTextSearch eventTextSearch;
+    private final EventGeoSearch eventGeoSearch;
+    private final EventViewsSynchronizer eventViewsSynchronizer;
+    private final WaitlistPromoter waitlistPromoter;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final int MIN_HOURS_BEFORE_EVENT = 2;
-    private static final LocalDateTime DISTANT_PAST = LocalDateTime.of(1970, 1, 1, 0, 0);
-    private static final Pattern EVENT_URI_PATTERN = Pattern.compile("^/events/(\\d+)$");
 
     @Override
     public List<EventFullDto> searchEventsForAdmin(List<Long> users,
@@ -65,10 +65,21 @@ public class EventServiceImpl implements EventService {
 
         var pageable = PageRequest.of(from / size, size, Sort.by("id").ascending());
 
-        return eventRepository.findAllByAdminFilters(users, states, categories, rangeStart, rangeEnd, pageable)
-                .stream()
-                .map(eventMapper::toFullDto)
-                .toList();
+        var filters = EventSpecifications.adminFilters(users, parseStates(states), categories, rangeStart, rangeEnd);
+        return eventStatsEnricher.toFullDtos(eventRepository.findSlice(filters, pageable).getContent());
+    }
+
+    @Override
+    public long countEventsForAdmin(List<Long> users,
+                                    List<String> states,
+                                    List<Long> categories,
+                                    LocalDateTime rangeStart,
+                                    LocalDateTime rangeEnd) {
+
+        log.info("Админ: подсчёт событий с фильтрами");
+
+        return eventRepository.count(
+                EventSpecifications.adminFilters(users, parseStates(states), categories, rangeStart, rangeEnd));
     }
 
     @Override
@@ -81,7 +92,11 @@ public class EventServiceImpl implements EventService {
         processAdminStateAction(event, request.getStateAction());
 
         Event updated = eventRepository.save(event);
-        return eventMapper.toFullDto(updated);
+        if (request.getParticipantLimit() != null || request.getRequestModeration() != null) {
+            waitlistPromoter.promote(eventId);
+        }
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        return eventStatsEnricher.toFullDto(updated);
     }
 
     @Override
@@ -98,7 +113,7 @@ public class EventServiceImpl implements EventService {
         event.setState(State.PENDING);
 
         Event saved = eventRepository.save(event);
-        return eventMapper.toFullDto(saved);
+        return eventStatsEnricher.toFullDto(saved);
     }
 
     @Override
@@ -108,15 +123,12 @@ public class EventServiceImpl implements EventService {
         findUserByIdOrThrow(userId); // проверка существования
 
         var pageable = of(from / size, size, by("id").ascending());
-        return eventRepository.findAllByInitiatorId(userId, pageable)
-                .stream()
-                .map(eventMapper::toShortDto)
-                .collect(Collectors.toList());
+        return eventStatsEnricher.toShortDtos(eventRepository.findShortViewsByInitiatorId(userId, pageable));
     }
 
     public EventFullDto getEventByInitiator(Long userId, Long eventId) {
         Event event = findEventByInitiatorOrThrow(userId, eventId);
-        return eventMapper.toFullDto(event);
+        return eventStatsEnricher.toFullDto(event);
     }
 
     @Override
@@ -134,48 +146,94 @@ public class EventServiceImpl implements EventService {
         processInitiatorStateAction(event, request.getStateAction());
 
         Event updated = eventRepository.save(event);
-        return eventMapper.toFullDto(updated);
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        return eventStatsEnricher.toFullDto(updated);
     }
 
     @Override
-    public List<EventShortDto> getPublishedEvents(String text,
-                                                  List<Long> categories,
-                                                  Boolean paid,
-                                                  LocalDateTime rangeStart,
-                                                  LocalDateTime rangeEnd,
-                                                  Boolean onlyAvailable,
-                                                  String sort,
-                                                  Integer from,
-                                                  Integer size,
-                                                  String ip) {
+    public EventShortPage getPublishedEvents(String text,
+                                             List<Long> categories,
+                                             Boolean paid,
+                                             LocalDateTime rangeStart,
+                                             LocalDateTime rangeEnd,
+                                             Boolean onlyAvailable,
+                                             Double lat,
+                                             Double lon,
+                                             Double radius,
+                                             String sort,
+                                             String after,
+                                             Integer from,
+                                             Integer size,
+                                             String ip) {
 
         log.info("Публичный поиск событий");
 
-        SearchParameters params = initializeSearchParameters(rangeStart, rangeEnd, sort, from, size);
-        List<Event> events = eventRepository.findPublicEvents(text, categories, paid, params.start, params.end, params.page);
+        boolean byViews = "VIEWS".equalsIgnoreCase(sort);
+        boolean byRelevance = "RELEVANCE".equalsIgnoreCase(sort);
+        EventCursor.Type cursorType = byViews ? EventCursor.Type.VIEWS : EventCursor.Type.EVENT_DATE;
+        boolean available = Boolean.TRUE.equals(onlyAvailable);
+        String query = eventTextSearch.toQuery(text);
 
-        events = filterByAvailability(events, onlyAvailable);
+        if (byRelevance && text == null) {
+            throw new ValidationException("sort=RELEVANCE requires text");
+        }
+        if (byRelevance && after != null) {
+            throw new ValidationException("Cursor pagination is not supported for sort=RELEVANCE");
+        }
 
-        Map<Long, Long> views = getViewsForEvents(events);
-        Map<Long, Long> confirmed = getConfirmedRequestsMap(events.stream().map(Event::getId).toList());
+        SearchParameters params = initializeSearchParameters(rangeStart, rangeEnd, sort, from, size);
+        boolean nearby = lat != null || lon != null || radius != null;
+        if (nearby) {
+            validateNearbySearch(lat, lon, radius, sort, after);
+        }
+        if (eventTextSearch.matchesNothing(text)) {
+            return new EventShortPage(List.of(), null);
+        }
+
+        List<EventShortView> events;
+        if (nearby) {
+            var filters = EventSpecifications.publicFilters(query, categories, paid, available, params.start, params.end)
+                    .and(eventGeoSearch.within(lat, lon, radius));
+            events = eventRepository.findShortViewsByDistance(filters, lat, lon,
+                    (int) params.page.getOffset(), params.page.getPageSize());
+            return new EventShortPage(eventStatsEnricher.toShortDtos(events), null);
+        }
+        if (byRelevance) {
+            events = query != null
+                    ? eventRepository.findPublicEventsByRelevance(query, categories, paid, available,
+                    params.start, params.end, params.page)
+                    : eventRepository.findPublicEvents(null, categories, paid, available,
+                    params.start, params.end, params.page);
+            return new EventShortPage(eventStatsEnricher.toShortDtos(events), null);
+        }
+        if (after != null) {
+            EventCursor cursor = EventCursor.decode(after);
+            if (cursor.type() != cursorType) {
+                throw new ValidationException("Cursor does not match sort=" + sort);
+            }
+            events = byViews
+                    ? eventRepository.findPublicEventsByViewsAfter(query, categories, paid, available,
+                    params.start, params.end, cursor.views(), cursor.id(), Limit.of(size))
+                    : eventRepository.findPublicEventsAfter(query, categories, paid, available,
+                    params.start, params.end, cursor.eventDate(), cursor.id(), Limit.of(size));
+        } else {
+            events = byViews
+                    ? eventRepository.findPublicEventsByViews(query, categories, paid, available,
+                    params.start, params.end, params.page)
+                    : eventRepository.findPublicEvents(query, categories, paid, available,
+                    params.start, params.end, params.page);
+        }
 
-        List<EventShortDto> dtos = enrichWithStats(events, views, confirmed);
-        return sortAndPaginateByViews(dtos, sort, from, size);
+        return new EventShortPage(eventStatsEnricher.toShortDtos(events), nextCursor(events, cursorType, size));
     }
 
     @Override
     public EventFullDto getPublishedEventById(Long id, String ip) {
         Event event = eventRepository.findByIdAndState(id, State.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("Event with id=" + id + " not found or not published"));
+        eventViewsSynchronizer.markViewed(id);
 
-        Long confirmed = requestRepository.countByEventIdAndStatus(id, RequestStatus.CONFIRMED);
-        Map<Long, Long> views = getViewsForEvents(List.of(event));
-
-        EventFullDto dto = eventMapper.toFullDto(event);
-        dto.setConfirmedRequests(confirmed);
-        dto.setViews(views.getOrDefault(id, 0L));
-
-        return dto;
+        return eventStatsEnricher.toFullDto(event);
     }
 
     private void updateEventFieldsFromAdminRequest(Event event, UpdateEventAdminRequest request) {
@@ -250,6 +308,37 @@ public class EventServiceImpl implements EventService {
         return date;
     }
 
+    private void validateNearbySearch(Double lat, Double lon, Double radius, String sort, String after) {
+        if (lat == null || lon == null || radius == null) {
+            throw new ValidationException("lat, lon and radius must be specified together");
+        }
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new ValidationException("lat must be within [-90, 90] and lon within [-180, 180]");
+        }
+        if (radius <= 0) {
+            throw new ValidationException("radius must be positive");
+        }
+        if (sort != null) {
+            throw new ValidationException("Search by radius is always sorted by distance, sort is not supported");
+        }
+        if (after != null) {
+            throw new ValidationException("Cursor pagination is not supported for search by radius");
+        }
+    }
+
+    private List<State> parseStates(List<String> states) {
+        if (states == null) return null;
+        List<State> result = new ArrayList<>(states.size());
+        for (String state : states) {
+            try {
+                result.add(State.valueOf(state));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unknown state: " + state);
+            }
+        }
+        return result;
+    }
+
     private Event findEventByIdOrThrow(Long id) {
         return eventRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Event with id=" + id + " not found"));
@@ -284,69 +373,17 @@ public class EventServiceImpl implements EventService {
         return new SearchParameters(start, end, page);
     }
 
-    private List<Event> filterByAvailability(List<Event> events, Boolean onlyAvailable) {
-        if (Boolean.TRUE.equals(onlyAvailable)) {
-            Map<Long, Long> confirmed = getConfirmedRequestsMap(events.stream().map(Event::getId).toList());
-            return events.stream()
-                    .filter(e -> e.getParticipantLimit() == 0 ||
-                            confirmed.getOrDefault(e.getId(), 0L) < e.getParticipantLimit())
-                    .toList();
-        }
-        return events;
-    }
-
-    private List<EventShortDto> enrichWithStats(List<Event> events, Map<Long, Long> views, Map<Long, Long> confirmed) {
-        return events.stream()
-                .map(e -> {
-                    EventShortDto dto = eventMapper.toShortDto(e);
-                    dto.setViews(views.getOrDefault(e.getId(), 0L));
-                    dto.setConfirmedRequests(confirmed.getOrDefault(e.getId(), 0L));
-                    return dto;
-                })
-                .toList();
-    }
-
-    private List<EventShortDto> sortAndPaginateByViews(List<EventShortDto> dtos, String sort, int from, int size) {
-        if ("VIEWS".equalsIgnoreCase(sort)) {
-            dtos = dtos.stream()
-                    .sorted(Comparator.comparing(EventShortDto::getViews).reversed())
-                    .toList();
-            int to = Math.min(from + size, dtos.size());
-            return from >= dtos.size() ? List.of() : dtos.subList(from, to);
-        }
-        return dtos;
-    }
-
-    private Map<Long, Long> getConfirmedRequestsMap(List<Long> eventIds) {
-        if (eventIds.isEmpty()) return Map.of();
-        return requestRepository.findAllByEventIdInAndStatus(eventIds, RequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.groupingBy(r -> r.getEvent().getId(), Collectors.counting()));
-    }
-
-    private Map<Long, Long> getViewsForEvents(List<Event> events) {
-        if (events.isEmpty()) return Map.of();
-
-        List<String> uris = events.stream().map(e -> "/events/" + e.getId()).toList();
-        LocalDateTime start = events.stream()
-                .map(Event::getPublishedOn)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(DISTANT_PAST);
-
-        try {
-            List<ViewStatsDto> stats = statsClient.getStats(start, LocalDateTime.now(), uris, true);
-            Map<Long, Long> views = new HashMap<>();
-            for (ViewStatsDto s : stats) {
-                Matcher m = EVENT_URI_PATTERN.matcher(s.getUri());
-                if (m.matches()) {
-                    views.put(Long.parseLong(m.group(1)), s.getHits());
-                }
-            }
-            return views;
-        } catch (Exception e) {
-            log.warn("Failed to get stats: {}", e.getMessage());
-            return Map.of();
+    /**
+     * Курсор на страницу после последнего события; выдаётся, только если страница заполнена целиком.
+     */
+    private String nextCursor(List<EventShortView> events, EventCursor.Type type, int size) {
+        if (events.size() < size) {
+            return null;
         }
+        EventShortView last = events.get(events.size() - 1);
+        EventCursor cursor = type == EventCursor.Type.VIEWS
+                ? EventCursor.afterViews(last.views(), last.id())
+                : EventCursor.afterEventDate(last.eventDate(), last.id());
+        return cursor.encode();
     }
 }
\ No newline at end of file
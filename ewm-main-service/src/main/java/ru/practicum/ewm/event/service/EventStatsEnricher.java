@@ -0,0 +1,111 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventPublication;
+import ru.practicum.ewm.event.model.EventShortView;
+import ru.practicum.stats.client.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дополняет события просмотрами из сервиса статистики.
+ * <p>
+ * Работает сразу со списком событий: просмотры запрашиваются одним обращением к сервису статистики.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventStatsEnricher {
+
+    private final EventMapper eventMapper;
+    private final StatsClient statsClient;
+
+    public List<EventShortDto> toShortDtos(Collection<Event> events) {
+        if (events.isEmpty()) return List.of();
+
+        Map<Long, Long> views = getViews(events);
+
+        return events.stream()
+                .map(e -> eventMapper.toShortDto(e, views.getOrDefault(e.getId(), 0L)))
+                .toList();
+    }
+
+    /**
+     * Краткие DTO по проекциям событий, без загрузки сущностей.
+     */
+    public List<EventShortDto> toShortDtos(List<EventShortView> events) {
+        if (events.isEmpty()) return List.of();
+
+        Map<Long, Long> views = getPublishedViews(events.stream()
+                .filter(e -> e.publishedOn() != null)
+                .map(e -> new EventPublication(e.id(), e.publishedOn()))
+                .toList());
+
+        return events.stream()
+                .map(e -> eventMapper.toShortDto(e, views.getOrDefault(e.id(), 0L)))
+                .toList();
+    }
+
+    public List<EventFullDto> toFullDtos(Collection<Event> events) {
+        if (events.isEmpty()) return List.of();
+
+        Map<Long, Long> views = getViews(events);
+
+        return events.stream()
+                .map(e -> eventMapper.toFullDto(e, views.getOrDefault(e.getId(), 0L)))
+                .toList();
+    }
+
+    public EventShortDto toShortDto(Event event) {
+        return toShortDtos(List.of(event)).get(0);
+    }
+
+    public EventFullDto toFullDto(Event event) {
+        return toFullDtos(List.of(event)).get(0);
+    }
+
+    /**
+     * Возвращает уникальные просмотры опубликованных событий с момента самой ранней публикации.
+     * У неопубликованных событий просмотров нет; при недоступности сервиса статистики возвращается пустая карта.
+     */
+    public Map<Long, Long> getViews(Collection<Event> events) {
+        return getPublishedViews(events.stream()
+                .filter(e -> e.getPublishedOn() != null)
+                .map(e -> new EventPublication(e.getId(), e.getPublishedOn()))
+                .toList());
+    }
+
+    private Map<Long, Long> getPublishedViews(List<EventPublication> published) {
+        try {
+            return fetchViews(published);
+        } catch (Exception e) {
+            log.warn("Failed to get stats: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Запрашивает уникальные просмотры опубликованных событий одним обращением к сервису статистики.
+     * В отличие от {@link #getViews(Collection)} ошибки сервиса статистики пробрасываются вызывающему.
+     */
+    public Map<Long, Long> fetchViews(Collection<EventPublication> published) {
+        if (published.isEmpty()) return Map.of();
+
+        List<Long> ids = published.stream().map(EventPublication::id).distinct().toList();
+        LocalDateTime start = published.stream()
+                .map(EventPublication::publishedOn)
+                .min(LocalDateTime::compareTo)
+                .orElseThrow();
+
+        return statsClient.getEventViews(ids, start, LocalDateTime.now(), true);
+    }
+}
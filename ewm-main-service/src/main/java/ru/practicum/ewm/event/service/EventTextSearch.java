@@ -0,0 +1,94 @@
+package ru.practicum.ewm.event.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.repository.EventSearchFunctions;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Готовит текст публичного поиска для функции {@code fts_match} из {@link EventSearchFunctions}.
+ * <p>
+ * На PostgreSQL текст разбивается на слова, каждое ищется по префиксу в полнотекстовом индексе: «фест» находит
+ * «фестиваль», но подстрока из середины слова («вал») уже не находит. Индекс строится после старта приложения
+ * через {@code CREATE INDEX CONCURRENTLY}, не блокируя запись в таблицу событий; до его появления поиск
+ * работает медленнее. На остальных базах текст превращается в шаблон {@code LIKE}, как раньше.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class EventTextSearch {
+
+    private static final String INDEX_NAME = "idx_events_fts";
+    private static final String NOT_WORD = "[^\\p{L}\\p{N}]+";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean fullText;
+
+    @PostConstruct
+    public void init() {
+        fullText = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres")));
+        if (fullText) {
+            log.info("Полнотекстовый поиск событий включён, индекс {}", INDEX_NAME);
+        } else {
+            log.info("Полнотекстовый индекс недоступен, поиск событий по тексту выполняется через LIKE");
+        }
+    }
+
+    /**
+     * Строит индекс, когда приложение уже принимает запросы: на большой таблице это долго.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        if (!fullText) {
+            return;
+        }
+        try {
+            PostgresIndexes.createConcurrently(jdbcTemplate, INDEX_NAME, "ON events USING GIN ("
+                    + EventSearchFunctions.searchVector("title", "annotation", "description") + ")");
+        } catch (DataAccessException e) {
+            log.error("Не удалось построить индекс {}: {}", INDEX_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает значение параметра поиска или {@code null}, если по тексту фильтровать не нужно
+     * или не по чему (см. {@link #matchesNothing}).
+     */
+    public String toQuery(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (!fullText) {
+            return "%" + lower + "%";
+        }
+        String query = Arrays.stream(lower.split(NOT_WORD))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        return query.isEmpty() ? null : query;
+    }
+
+    /**
+     * Текст без единого слова (только знаки и символы, например {@code "!!!"}) в полнотекстовом индексе
+     * ничего не найдёт: поиск по нему должен вернуть пустой результат, а не все события без фильтра.
+     */
+    public boolean matchesNothing(String text) {
+        return fullText && text != null && !text.isBlank()
+                && Arrays.stream(text.split(NOT_WORD)).allMatch(String::isEmpty);
+    }
+}
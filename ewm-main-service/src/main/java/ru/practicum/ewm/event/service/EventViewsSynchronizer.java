@@ -0,0 +1,96 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.event.model.EventPublication;
+import ru.practicum.ewm.event.repository.EventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Периодически переносит просмотры опубликованных событий из сервиса статистики в колонку {@code views}.
+ * <p>
+ * По колонке база сортирует публичный поиск с {@code sort=VIEWS} так же, как по дате события:
+ * по индексу и с фильтрами, без загрузки всех событий в память.
+ * <p>
+ * Каждую минуту обновляются только события, страницы которых открывали за последние {@code recent-window}:
+ * просмотр попадает в статистику асинхронно, поэтому событие обновляется ещё несколько циклов после просмотра.
+ * Полный проход по всем опубликованным событиям — редкий, он подбирает просмотры через другие экземпляры
+ * сервиса и просмотры, отметки о которых потерялись при перезапуске.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventViewsSynchronizer {
+
+    private final EventRepository eventRepository;
+    private final EventStatsEnricher eventStatsEnricher;
+    private final TransactionTemplate transactionTemplate;
+
+    // id события → время последнего просмотра его страницы
+    private final Map<Long, Instant> viewed = new ConcurrentHashMap<>();
+
+    @Value("${ewm.events.views.sync-batch-size:200}")
+    private int batchSize;
+
+    @Value("${ewm.events.views.recent-window:PT5M}")
+    private Duration recentWindow;
+
+    /**
+     * Отмечает просмотр страницы события, чтобы ближайшие синхронизации обновили его просмотры.
+     */
+    public void markViewed(long eventId) {
+        viewed.put(eventId, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.events.views.sync-interval:PT1M}")
+    public void synchronizeRecent() {
+        Instant threshold = Instant.now().minus(recentWindow);
+        viewed.values().removeIf(viewedAt -> viewedAt.isBefore(threshold));
+        List<Long> ids = List.copyOf(viewed.keySet());
+
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batchIds = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            updated += update(eventRepository.findPublished(batchIds));
+        }
+
+        log.debug("Обновлены просмотры у {} из {} недавно просмотренных событий", updated, ids.size());
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.events.views.full-sync-interval:PT1H}")
+    public void synchronizeAll() {
+        long afterId = 0;
+        int updated = 0;
+        List<EventPublication> batch;
+        do {
+            batch = eventRepository.findPublishedAfter(afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) break;
+
+            updated += update(batch);
+            afterId = batch.get(batch.size() - 1).id();
+        } while (batch.size() == batchSize);
+
+        log.debug("Обновлены просмотры у {} событий", updated);
+    }
+
+    private int update(Collection<EventPublication> batch) {
+        if (batch.isEmpty()) return 0;
+
+        Map<Long, Long> views = eventStatsEnricher.fetchViews(batch);
+        Integer updated = transactionTemplate.execute(status -> views.entrySet().stream()
+                .mapToInt(v -> eventRepository.raiseViews(v.getKey(), v.getValue()))
+                .sum());
+        return updated != null ? updated : 0;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Создание индексов PostgreSQL при старте без блокировки записи в таблицу.
+ * <p>
+ * {@code CREATE INDEX CONCURRENTLY} строит индекс, не блокируя вставки и изменения, но не может выполняться
+ * в транзакции, поэтому вызывается через {@link JdbcTemplate} вне транзакций Spring, в режиме autocommit.
+ * Прерванное построение оставляет невалидный индекс, который {@code IF NOT EXISTS} пропустил бы навсегда:
+ * такой индекс удаляется и строится заново.
+ */
+@Slf4j
+final class PostgresIndexes {
+
+    private PostgresIndexes() {
+    }
+
+    /**
+     * @param definition всё, что следует за именем индекса: {@code ON table USING ... (...)}
+     */
+    static void createConcurrently(JdbcTemplate jdbcTemplate, String name, String definition) {
+        Boolean valid = jdbcTemplate.query("SELECT i.indisvalid FROM pg_index i"
+                        + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                rs -> rs.next() ? rs.getBoolean(1) : null, name);
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            log.warn("Индекс {} невалиден после прерванного построения, строится заново", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        log.info("Построение индекса {}", name);
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.ewm.request.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.ewm.request.dto.ParticipationRequestDto;
 import ru.practicum.ewm.request.model.ParticipationRequest;
+import ru.practicum.ewm.request.model.RequestView;
 
 @Component
 public class RequestMapper {
@@ -16,4 +17,14 @@ public class RequestMapper {
                 request.getStatus().name()
         );
     }
-}
\ No newline at end of file
+
+    public ParticipationRequestDto toDto(RequestView request) {
+        return new ParticipationRequestDto(
+                request.id(),
+                request.created(),
+                request.eventId(),
+                request.requesterId(),
+                request.status().name()
+        );
+    }
+}
@@ -8,7 +8,10 @@ import ru.practicum.ewm.user.model.User;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "participation_requests")
+@Table(name = "participation_requests",
+        indexes = @Index(name = "idx_requests_event_status_id", columnList = "event_id, status, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uq_request_requester_event",
+                columnNames = {"requester_id", "event_id"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,11 +26,11 @@ public class ParticipationRequest {
     @Column(nullable = false)
     private LocalDateTime created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "requester_id", nullable = false)
     private User requester;
 
@@ -4,5 +4,9 @@ public enum RequestStatus {
     PENDING,
     CONFIRMED,
     REJECTED,
-    CANCELED
+    CANCELED,
+    /**
+     * Лист ожидания заполненного события; заявки переводятся на освободившиеся места в порядке подачи.
+     */
+    WAITLISTED
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ru.practicum.ewm.request.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Заявка на участие без связанных сущностей: только то, что нужно для ответа.
+ * Читается одним запросом без загрузки событий и пользователей.
+ */
+public record RequestView(Long id, LocalDateTime created, Long eventId, Long requesterId, RequestStatus status) {
+}
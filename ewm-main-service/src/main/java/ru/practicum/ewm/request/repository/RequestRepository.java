@@ -1,11 +1,15 @@
 package ru.practicum.ewm.request.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.request.model.ParticipationRequest;
 import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.model.RequestView;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,12 +23,87 @@ public interface RequestRepository extends JpaRepository<ParticipationRequest, L
 
     List<ParticipationRequest> findAllByEventId(Long eventId);
 
-    List<ParticipationRequest> findAllByEventIdAndIdIn(Long eventId, List<Long> requestIds);
+    // === Модерация заявок ===
+    boolean existsByEventIdAndIdInAndStatusNot(Long eventId, Collection<Long> requestIds, RequestStatus status);
 
-    @Query("SELECT COUNT(r) FROM ParticipationRequest r WHERE r.event.id = :eventId AND r.status = :status")
-    long countByEventIdAndStatus(@Param("eventId") Long eventId, @Param("status") RequestStatus status);
+    long countByEventIdAndIdInAndStatus(Long eventId, Collection<Long> requestIds, RequestStatus status);
 
-    @Query("SELECT r FROM ParticipationRequest r WHERE r.event.id IN :eventIds AND r.status = :status")
-    List<ParticipationRequest> findAllByEventIdInAndStatus(@Param("eventIds") List<Long> eventIds,
-                                                           @Param("status") RequestStatus status);
-}
\ No newline at end of file
+    @Query("""
+            SELECT new ru.practicum.ewm.request.model.RequestView(r.id, r.created, r.event.id, r.requester.id, r.status)
+            FROM ParticipationRequest r
+            WHERE r.event.id = :eventId AND r.id IN :requestIds AND r.status = 'PENDING'
+            ORDER BY r.id ASC
+            """)
+    List<RequestView> findPendingViews(@Param("eventId") Long eventId,
+                                       @Param("requestIds") Collection<Long> requestIds);
+
+    @Query("""
+            SELECT new ru.practicum.ewm.request.model.RequestView(r.id, r.created, r.event.id, r.requester.id, r.status)
+            FROM ParticipationRequest r
+            WHERE r.event.id = :eventId AND r.status IN ('PENDING', 'WAITLISTED')
+            ORDER BY r.id ASC
+            """)
+    List<RequestView> findWaitingViews(@Param("eventId") Long eventId);
+
+    /**
+     * Подтверждает первые {@code count} ожидающих заявок из списка в порядке подачи.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ParticipationRequest r SET r.status = 'CONFIRMED'
+            WHERE r.id IN (SELECT p.id FROM ParticipationRequest p
+                           WHERE p.event.id = :eventId AND p.id IN :requestIds AND p.status = 'PENDING'
+                           ORDER BY p.id ASC
+                           LIMIT :count)
+            """)
+    int confirmFirstPending(@Param("eventId") Long eventId,
+                            @Param("requestIds") Collection<Long> requestIds,
+                            @Param("count") int count);
+
+    /**
+     * Отклоняет ожидающие заявки из списка.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ParticipationRequest r SET r.status = 'REJECTED'
+            WHERE r.event.id = :eventId AND r.id IN :requestIds AND r.status = 'PENDING'
+            """)
+    int rejectPending(@Param("eventId") Long eventId, @Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Отклоняет все ожидающие решения заявки события и его лист ожидания одним оператором, без списка id.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ParticipationRequest r SET r.status = 'REJECTED'
+            WHERE r.event.id = :eventId AND r.status IN ('PENDING', 'WAITLISTED')
+            """)
+    int rejectAllWaiting(@Param("eventId") Long eventId);
+
+    /**
+     * Отменяет заявку, если её статус всё ещё {@code status}; иначе возвращает 0.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ParticipationRequest r SET r.status = 'CANCELED'
+            WHERE r.id = :requestId AND r.status = :status
+            """)
+    int cancel(@Param("requestId") Long requestId, @Param("status") RequestStatus status);
+
+    // === Лист ожидания ===
+    boolean existsByEventIdAndStatus(Long eventId, RequestStatus status);
+
+    @Query("""
+            SELECT r.id FROM ParticipationRequest r
+            WHERE r.event.id = :eventId AND r.status = 'WAITLISTED'
+            ORDER BY r.id ASC
+            """)
+    List<Long> findWaitlistedIds(@Param("eventId") Long eventId, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ParticipationRequest r SET r.status = :status
+            WHERE r.id IN :requestIds AND r.status = 'WAITLISTED'
+            """)
+    int promoteWaitlisted(@Param("requestIds") Collection<Long> requestIds, @Param("status") RequestStatus status);
+}
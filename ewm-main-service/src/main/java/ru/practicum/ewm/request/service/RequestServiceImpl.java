@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventCapacity;
 import ru.practicum.ewm.event.model.State;
 import ru.practicum.ewm.event.repository.EventRepository;
 import ru.practicum.ewm.exception.ConflictException;
@@ -15,12 +16,15 @@ import ru.practicum.ewm.request.dto.ParticipationRequestDto;
 import ru.practicum.ewm.request.mapper.RequestMapper;
 import ru.practicum.ewm.request.model.ParticipationRequest;
 import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.model.RequestView;
 import ru.practicum.ewm.request.repository.RequestRepository;
 import ru.practicum.ewm.user.model.User;
 import ru.practicum.ewm.user.repository.UserRepository;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +37,7 @@ public class RequestServiceImpl implements RequestService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
+    private final WaitlistPromoter waitlistPromoter;
 
     /**
      * Создание запроса на участие в событии.
@@ -49,13 +54,10 @@ public class RequestServiceImpl implements RequestService {
         // 2. Валидация возможности создания запроса
         validateRequestCreation(userId, eventId, event);
 
-        // 3. Проверка лимита
-        long confirmed = checkLimitAndGetConfirmed(eventId, event.getParticipantLimit());
+        // 3. Определение статуса с учётом лимита и листа ожидания
+        RequestStatus status = determineInitialStatus(event);
 
-        // 4. Определение статуса
-        RequestStatus status = determineInitialStatus(event, confirmed);
-
-        // 5. Создание и сохранение запроса
+        // 4. Создание и сохранение запроса
         ParticipationRequest request = ParticipationRequest.builder()
                 .requester(user)
                 .event(event)
@@ -63,6 +65,18 @@ public class RequestServiceImpl implements RequestService {
                 .build();
 
         ParticipationRequest saved = requestRepository.save(request);
+
+        // 5. Место занимается последним оператором транзакции: строка события блокируется только до коммита,
+        // а при нехватке мест вставка заявки откатывается вместе с исключением. Событию без лимита
+        // проверять нечего: счётчик увеличивается простым UPDATE в той же транзакции
+        if (status == RequestStatus.CONFIRMED) {
+            if (event.getParticipantLimit() == 0) {
+                eventRepository.addConfirmedRequests(eventId, 1);
+            } else if (eventRepository.reserveSeat(eventId) == 0) {
+                log.warn("Достигнут лимит участников для события={}", eventId);
+                throw new ConflictException("Participant limit reached");
+            }
+        }
         log.info("Запрос на участие создан с id={}", saved.getId());
         return requestMapper.toDto(saved);
     }
@@ -100,23 +114,42 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
-    private long checkLimitAndGetConfirmed(Long eventId, int limit) {
-        long confirmed = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
-        if (limit > 0 && confirmed >= limit) {
-            log.warn("Достигнут лимит участников для события={}", eventId);
-            throw new ConflictException("Participant limit reached");
+    /**
+     * Заявка в событие без модерации подтверждается сразу; в заполненное событие без модерации — отклоняется.
+     * В событии с модерацией заявка ждёт решения инициатора, а если подтверждённые заявки уже заняли лимит —
+     * встаёт в конец листа ожидания. Свободные места считаются так же, как при продвижении листа ожидания
+     * ({@link WaitlistPromoter#freeSeats}); пока они есть, листа ожидания у события нет.
+     * <p>
+     * Без модерации проверка лимита по загруженному событию отсекает заявки в заполненные события без записи в БД,
+     * но не защищает от гонки: окончательно место занимает {@link EventRepository#reserveSeat(Long)}.
+     * С модерацией строка события блокируется, как при модерации и продвижении листа ожидания,
+     * поэтому одновременные заявки не займут одно свободное место.
+     */
+    private RequestStatus determineInitialStatus(Event event) {
+        RequestStatus status;
+
+        if (event.getParticipantLimit() == 0 || !event.getRequestModeration()) {
+            EventCapacity capacity = new EventCapacity(event.getId(), event.getParticipantLimit(),
+                    event.getConfirmedRequests(), event.getRequestModeration());
+            if (waitlistPromoter.freeSeats(capacity) <= 0) {
+                log.warn("Достигнут лимит участников для события={}", event.getId());
+                throw new ConflictException("Participant limit reached");
+            }
+            status = RequestStatus.CONFIRMED;
+        } else {
+            EventCapacity capacity = lockCapacity(event.getId());
+            status = waitlistPromoter.freeSeats(capacity) <= 0 ? RequestStatus.WAITLISTED : RequestStatus.PENDING;
         }
-        return confirmed;
-    }
-
-    private RequestStatus determineInitialStatus(Event event, long confirmed) {
-        RequestStatus status = (event.getParticipantLimit() == 0 || !event.getRequestModeration())
-                ? RequestStatus.CONFIRMED : RequestStatus.PENDING;
 
         log.info("Статус запроса установлен как {} для события={}", status, event.getId());
         return status;
     }
 
+    private EventCapacity lockCapacity(Long eventId) {
+        return eventRepository.findCapacityForUpdate(eventId)
+                .orElseThrow(() -> new NotFoundException("Event with id=" + eventId + " not found"));
+    }
+
     @Override
     public List<ParticipationRequestDto> getUserRequests(Long userId) {
         log.info("Получение запросов на участие для пользователя={}", userId);
@@ -145,15 +178,24 @@ public class RequestServiceImpl implements RequestService {
                     return new NotFoundException("Request with id=" + requestId + " for user=" + userId + " not found");
                 });
 
-        if (!request.getStatus().equals(RequestStatus.PENDING)) {
+        // Участник может отменить заявку, ожидающую решения, или выйти из листа ожидания
+        RequestStatus status = request.getStatus();
+        if (status != RequestStatus.PENDING && status != RequestStatus.WAITLISTED) {
             log.warn("Запрос id={} не в статусе ожидания, отмена невозможна", requestId);
             throw new ConflictException("Only pending requests can be canceled");
         }
 
+        // Строка события блокируется до заявки, в том же порядке, что при модерации: отмена не меняет
+        // заявки, которые модерация уже прочитала для ответа. Мест ожидающая заявка не занимает,
+        // поэтому лист ожидания отмена не продвигает
+        lockCapacity(request.getEvent().getId());
+        if (requestRepository.cancel(requestId, status) == 0) {
+            log.warn("Статус запроса id={} изменился до отмены", requestId);
+            throw new ConflictException("Only pending requests can be canceled");
+        }
         request.setStatus(RequestStatus.CANCELED);
-        ParticipationRequest updated = requestRepository.save(request);
         log.info("Запрос id={} успешно отменён", requestId);
-        return requestMapper.toDto(updated);
+        return requestMapper.toDto(request);
     }
 
     @Override
@@ -176,6 +218,9 @@ public class RequestServiceImpl implements RequestService {
 
     /**
      * Обновление статусов заявок инициатором события.
+     * Статусы меняются UPDATE по событию и списку заявок из запроса, без загрузки заявок и без списков id
+     * из БД в параметрах. Ответ собирается одним запросом проекции до UPDATE: строка события заблокирована,
+     * и до конца транзакции статусы её ожидающих заявок меняет только это решение.
      */
     @Override
     @Transactional
@@ -185,28 +230,27 @@ public class RequestServiceImpl implements RequestService {
         log.info("Обновление статусов заявок для события={} инициатором={}. Id заявок: {}, новый статус: {}",
                 eventId, userId, updateRequest.getRequestIds(), updateRequest.getStatus());
 
-        // 1. Предварительные проверки и получение событий/запросов
-        Event event = findInitiatorEventOrThrow(userId, eventId);
+        // 1. Предварительные проверки; строка события блокируется до конца модерации
+        Event event = findInitiatorEventForUpdateOrThrow(userId, eventId);
         validateModerationRequirements(eventId, event);
-
-        List<ParticipationRequest> requestsToUpdate = getValidPendingRequests(eventId, updateRequest.getRequestIds());
+        validateRequestsPending(eventId, updateRequest.getRequestIds());
 
         RequestStatus newStatus = RequestStatus.valueOf(updateRequest.getStatus());
-        List<ParticipationRequestDto> confirmed = new ArrayList<>();
-        List<ParticipationRequestDto> rejected = new ArrayList<>();
+        EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult(new ArrayList<>(), new ArrayList<>());
 
         if (newStatus == RequestStatus.CONFIRMED) {
-            processConfirmation(event, requestsToUpdate, confirmed, rejected);
+            result = processConfirmation(event, updateRequest.getRequestIds());
         } else if (newStatus == RequestStatus.REJECTED) {
-            processRejection(requestsToUpdate, rejected);
+            result = processRejection(eventId, updateRequest.getRequestIds());
         }
 
-        log.info("Обновление статусов заявок завершено: подтверждено {}, отклонено {}", confirmed.size(), rejected.size());
-        return new EventRequestStatusUpdateResult(confirmed, rejected);
+        log.info("Обновление статусов заявок завершено: подтверждено {}, отклонено {}",
+                result.getConfirmedRequests().size(), result.getRejectedRequests().size());
+        return result;
     }
 
-    private Event findInitiatorEventOrThrow(Long userId, Long eventId) {
-        return eventRepository.findByInitiatorIdAndId(userId, eventId)
+    private Event findInitiatorEventForUpdateOrThrow(Long userId, Long eventId) {
+        return eventRepository.findByInitiatorIdAndIdForUpdate(userId, eventId)
                 .orElseThrow(() -> {
                     log.warn("Событие с id={} для пользователя={} не найдено", eventId, userId);
                     return new NotFoundException("Event with id=" + eventId + " for user=" + userId + " not found");
@@ -220,94 +264,83 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
-    private List<ParticipationRequest> getValidPendingRequests(Long eventId, List<Long> requestIds) {
-        List<ParticipationRequest> requests = requestRepository.findAllByEventIdAndIdIn(eventId, requestIds);
-
-        if (requests.size() != requestIds.size()) {
-            log.warn("Некоторые заявки не найдены для события={}", eventId);
-        }
-
-        if (requests.stream().anyMatch(r -> !r.getStatus().equals(RequestStatus.PENDING))) {
+    private void validateRequestsPending(Long eventId, List<Long> requestIds) {
+        if (requestRepository.existsByEventIdAndIdInAndStatusNot(eventId, requestIds, RequestStatus.PENDING)) {
             log.warn("Попытка обновить заявки не в статусе ожидания: {}", requestIds);
             throw new ConflictException("Only pending requests can be moderated");
         }
-        return requests;
     }
 
     /**
-     * Обрабатывает подтверждение заявок, учитывая лимит.
+     * Подтверждает заявки в пределах свободных мест (в порядке подачи), остальные отклоняет.
+     * Если лимит исчерпан, отклоняются и все прочие ожидающие заявки события вместе с листом ожидания.
      */
-    private void processConfirmation(Event event,
-                                     List<ParticipationRequest> requestsToConfirm,
-                                     List<ParticipationRequestDto> confirmed,
-                                     List<ParticipationRequestDto> rejected) {
-
-        long currentConfirmed = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
-        long available = event.getParticipantLimit() - currentConfirmed;
+    private EventRequestStatusUpdateResult processConfirmation(Event event, List<Long> requestIds) {
+        long available = event.getParticipantLimit() - event.getConfirmedRequests();
 
         if (available <= 0) {
             log.warn("Достигнут лимит участников для события={}", event.getId());
             throw new ConflictException("Participant limit reached");
         }
 
-        int toConfirm = (int) Math.min(available, requestsToConfirm.size());
-
-        // 1. Подтверждение доступных заявок
-        for (int i = 0; i < toConfirm; i++) {
-            ParticipationRequest req = requestsToConfirm.get(i);
-            req.setStatus(RequestStatus.CONFIRMED);
-            requestRepository.save(req);
-            confirmed.add(requestMapper.toDto(req));
-            log.info("Заявка id={} подтверждена", req.getId());
+        long pending = requestRepository.countByEventIdAndIdInAndStatus(event.getId(), requestIds, RequestStatus.PENDING);
+        if (pending != requestIds.size()) {
+            log.warn("Некоторые заявки не найдены для события={}", event.getId());
+        }
+        int toConfirm = (int) Math.min(available, pending);
+        boolean limitReached = available == toConfirm;
+
+        // 1. Заявки, статус которых изменит решение: при исчерпании лимита — все ожидающие заявки события
+        List<RequestView> affected = limitReached
+                ? requestRepository.findWaitingViews(event.getId())
+                : requestRepository.findPendingViews(event.getId(), requestIds);
+
+        // 2. Подтверждение первых заявок из запроса в пределах свободных мест
+        if (toConfirm > 0) {
+            int confirmed = requestRepository.confirmFirstPending(event.getId(), requestIds, toConfirm);
+            eventRepository.addConfirmedRequests(event.getId(), confirmed);
+            log.info("Подтверждено {} заявок события={}", confirmed, event.getId());
         }
 
-        // 2. Отклонение заявок, превышающих лимит (из текущего списка)
-        for (int i = toConfirm; i < requestsToConfirm.size(); i++) {
-            ParticipationRequest req = requestsToConfirm.get(i);
-            req.setStatus(RequestStatus.REJECTED);
-            requestRepository.save(req);
-            rejected.add(requestMapper.toDto(req));
-            log.info("Заявка id={} отклонена (превышение лимита)", req.getId());
+        // 3. Лимит исчерпан: отклонение заявок сверх лимита, всех остальных ожидающих заявок события
+        // и листа ожидания
+        if (limitReached) {
+            int rejected = requestRepository.rejectAllWaiting(event.getId());
+            log.info("Автоматически отклонено {} заявок события={} из-за достижения лимита", rejected, event.getId());
         }
 
-        // 3. Автоматическое отклонение всех остальных ожидающих заявок, если лимит достигнут
-        if (event.getParticipantLimit() > 0 && available == toConfirm) {
-            autoRejectOtherPendingRequests(event.getId(), requestsToConfirm, rejected);
+        Set<Long> requested = new HashSet<>(requestIds);
+        List<ParticipationRequestDto> confirmed = new ArrayList<>();
+        List<ParticipationRequestDto> rejected = new ArrayList<>();
+        for (RequestView request : affected) {
+            if (confirmed.size() < toConfirm && requested.contains(request.id())) {
+                confirmed.add(toDto(request, RequestStatus.CONFIRMED));
+            } else {
+                rejected.add(toDto(request, RequestStatus.REJECTED));
+            }
         }
+        return new EventRequestStatusUpdateResult(confirmed, rejected);
     }
 
     /**
      * Обрабатывает простое отклонение заявок.
      */
-    private void processRejection(List<ParticipationRequest> requestsToReject, List<ParticipationRequestDto> rejected) {
-        for (ParticipationRequest req : requestsToReject) {
-            req.setStatus(RequestStatus.REJECTED);
-            requestRepository.save(req);
-            rejected.add(requestMapper.toDto(req));
-            log.info("Заявка id={} отклонена", req.getId());
+    private EventRequestStatusUpdateResult processRejection(Long eventId, List<Long> requestIds) {
+        List<RequestView> affected = requestRepository.findPendingViews(eventId, requestIds);
+        if (affected.size() != requestIds.size()) {
+            log.warn("Некоторые заявки не найдены для события={}", eventId);
+        }
+        List<ParticipationRequestDto> rejected = new ArrayList<>();
+        if (!affected.isEmpty()) {
+            int updated = requestRepository.rejectPending(eventId, requestIds);
+            log.info("Отклонено {} заявок события={}", updated, eventId);
+            affected.forEach(request -> rejected.add(toDto(request, RequestStatus.REJECTED)));
         }
+        return new EventRequestStatusUpdateResult(new ArrayList<>(), rejected);
     }
 
-    /**
-     * Автоматически отклоняет остальные ожидающие запросы после достижения лимита.
-     */
-    private void autoRejectOtherPendingRequests(Long eventId,
-                                                List<ParticipationRequest> currentProcessedRequests,
-                                                List<ParticipationRequestDto> rejected) {
-
-        List<Long> currentlyProcessedIds = currentProcessedRequests.stream()
-                .map(ParticipationRequest::getId)
-                .toList();
-
-        List<ParticipationRequest> otherPending = requestRepository.findAllByEventId(eventId).stream()
-                .filter(r -> r.getStatus() == RequestStatus.PENDING && !currentlyProcessedIds.contains(r.getId()))
-                .toList();
-
-        for (ParticipationRequest req : otherPending) {
-            req.setStatus(RequestStatus.REJECTED);
-            requestRepository.save(req);
-            rejected.add(requestMapper.toDto(req));
-            log.info("Заявка id={} автоматически отклонена из-за достижения лимита", req.getId());
-        }
+    private ParticipationRequestDto toDto(RequestView request, RequestStatus status) {
+        return requestMapper.toDto(new RequestView(request.id(), request.created(), request.eventId(),
+                request.requesterId(), status));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package ru.practicum.ewm.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.event.model.EventCapacity;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.repository.RequestRepository;
+
+import java.util.List;
+
+/**
+ * Переводит заявки из листа ожидания на освободившиеся места в порядке подачи.
+ * <p>
+ * Лист ожидания есть только у заполненного события, поэтому места освобождает изменение лимита
+ * или модерации события: продвижение вызывается в той же транзакции. Строка события блокируется,
+ * поэтому одновременные продвижения не раздают одно место дважды. Заявки переводятся пакетами
+ * по {@code promotion-batch-size}. Если событие требует модерации, место занимает только подтверждение,
+ * поэтому в ожидание решения инициатора ({@code PENDING}) переводится вся очередь; иначе подтверждается
+ * столько заявок, сколько свободно мест.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistPromoter {
+
+    private final RequestRepository requestRepository;
+    private final EventRepository eventRepository;
+
+    @Value("${ewm.requests.waitlist.promotion-batch-size:100}")
+    private int batchSize;
+
+    /**
+     * @return число заявок, выведенных из листа ожидания
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int promote(Long eventId) {
+        if (!requestRepository.existsByEventIdAndStatus(eventId, RequestStatus.WAITLISTED)) {
+            return 0;
+        }
+
+        EventCapacity capacity = eventRepository.findCapacityForUpdate(eventId).orElse(null);
+        if (capacity == null) {
+            return 0;
+        }
+
+        long free = freeSeats(capacity);
+        if (free <= 0) {
+            return 0;
+        }
+        RequestStatus target = RequestStatus.CONFIRMED;
+        if (isModerated(capacity)) {
+            target = RequestStatus.PENDING;
+            free = Long.MAX_VALUE;
+        }
+
+        int promoted = 0;
+        while (free > 0) {
+            int batch = (int) Math.min(free, batchSize);
+            List<Long> ids = requestRepository.findWaitlistedIds(eventId, Limit.of(batch));
+            if (ids.isEmpty()) break;
+
+            int updated = requestRepository.promoteWaitlisted(ids, target);
+            if (target == RequestStatus.CONFIRMED) {
+                eventRepository.addConfirmedRequests(eventId, updated);
+            }
+            promoted += updated;
+            free -= updated;
+            if (updated < batch) break;
+        }
+
+        if (promoted > 0) {
+            log.info("Из листа ожидания события={} переведено {} заявок в статус {}", eventId, promoted, target);
+        }
+        return promoted;
+    }
+
+    /**
+     * Свободные места события: лимит минус подтверждённые заявки. Заявки, ожидающие решения инициатора,
+     * мест не занимают. По этому же числу при создании заявки решается, встанет ли она в лист ожидания.
+     */
+    public long freeSeats(EventCapacity capacity) {
+        if (capacity.participantLimit() == 0) {
+            return Long.MAX_VALUE;
+        }
+        return capacity.participantLimit() - capacity.confirmedRequests();
+    }
+
+    private static boolean isModerated(EventCapacity capacity) {
+        return capacity.requestModeration() && capacity.participantLimit() > 0;
+    }
+}
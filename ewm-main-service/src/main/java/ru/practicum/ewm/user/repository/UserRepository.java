@@ -1,10 +1,15 @@
 package ru.practicum.ewm.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Страница без подсчёта общего числа строк, в отличие от findAll(Pageable)
+    List<User> findAllBy(Pageable pageable);
+}
@@ -0,0 +1,51 @@
+package ru.practicum.ewm.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.ewm.cache.BoundedTtlCache;
+import ru.practicum.ewm.user.dto.UserShortDto;
+import ru.practicum.ewm.user.mapper.UserMapper;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * {@link UserShortDto} по id для сборки DTO событий.
+ * Запись сбрасывается после коммита транзакции, удалившей пользователя.
+ * Проверки существования на записи сюда не обращаются: удалённый пользователь может ещё оставаться в кэше.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final BoundedTtlCache<Long, UserShortDto> users;
+
+    public UserCache(UserRepository userRepository,
+                     UserMapper userMapper,
+                     @Value("${ewm.users.cache.ttl:PT10M}") Duration ttl,
+                     @Value("${ewm.users.cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.users = new BoundedTtlCache<>(ttl, maxSize);
+    }
+
+    /**
+     * Пользователь из кэша или из БД; пустой результат, если пользователя нет.
+     * Возвращается общий для всех вызовов экземпляр: его можно отдавать в ответах, но не изменять.
+     */
+    public Optional<UserShortDto> get(Long userId) {
+        return Optional.ofNullable(users.get(userId,
+                () -> userRepository.findById(userId).map(userMapper::toUserShortDto).orElse(null)));
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChanged change) {
+        users.invalidate(change.userId());
+        log.debug("Из кэша пользователей убран пользователь {}", change.userId());
+    }
+}
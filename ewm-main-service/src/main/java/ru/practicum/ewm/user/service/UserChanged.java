@@ -0,0 +1,7 @@
+package ru.practicum.ewm.user.service;
+
+/**
+ * Пользователь удалён. Публикуется в транзакции изменения.
+ */
+public record UserChanged(Long userId) {
+}
@@ -2,6 +2,7 @@ package ru.practicum.ewm.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -26,6 +27,7 @@ public class UserServiceImpl implements UserService {
 
      private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -50,7 +52,7 @@ public class UserServiceImpl implements UserService {
 
         List<User> users;
         if (ids == null || ids.isEmpty()) {
-            users = userRepository.findAll(pageRequest).getContent();
+            users = userRepository.findAllBy(pageRequest);
             log.info("Найдено {} пользователей без фильтрации по id", users.size());
         } else {
             users = userRepository.findAllById(ids);
@@ -82,6 +84,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChanged(userId));
         log.info("Пользователь с id={} успешно удалён", userId);
     }
 }
\ No newline at end of file
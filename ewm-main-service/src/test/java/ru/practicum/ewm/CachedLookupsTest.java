@@ -0,0 +1,110 @@
+package ru.practicum.ewm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.category.dto.CategoryDto;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.category.service.CategoryCache;
+import ru.practicum.ewm.event.dto.NewEventDto;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.service.EventService;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.request.service.RequestService;
+import ru.practicum.ewm.user.dto.UserShortDto;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+import ru.practicum.ewm.user.service.UserCache;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Кэши категорий и пользователей хранят готовые DTO и служат только для чтения: запись проверяет существование
+ * по БД, поэтому удалённая в обход кэша сущность даёт 404, а не ошибку внешнего ключа.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cachedlookups;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class CachedLookupsTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Test
+    void caches_returnSameDtoUntilInvalidated() {
+        Long categoryId = categoryRepository.save(Category.builder().name("cached").build()).getId();
+        Long userId = userRepository.save(User.builder().name("cached").email("cached@test.ru").build()).getId();
+
+        CategoryDto category = categoryCache.get(categoryId).orElseThrow();
+        UserShortDto user = userCache.get(userId).orElseThrow();
+
+        assertThat(category).isEqualTo(new CategoryDto(categoryId, "cached"));
+        assertThat(categoryCache.get(categoryId)).containsSame(category);
+        assertThat(user).isEqualTo(new UserShortDto(userId, "cached"));
+        assertThat(userCache.get(userId)).containsSame(user);
+    }
+
+    @Test
+    void createEvent_categoryDeletedWhileCached_notFound() {
+        User initiator = userRepository.save(User.builder().name("initiator").email("initiator@test.ru").build());
+        Long categoryId = categoryRepository.save(Category.builder().name("removed").build()).getId();
+        assertThat(categoryCache.get(categoryId)).isPresent();
+
+        categoryRepository.deleteById(categoryId);
+
+        assertThatThrownBy(() -> eventService.createEventByInitiator(initiator.getId(), newEvent(categoryId)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void createRequest_userDeletedWhileCached_notFound() {
+        Long userId = userRepository.save(User.builder().name("removed").email("removed@test.ru").build()).getId();
+        assertThat(userCache.get(userId)).isPresent();
+
+        userRepository.deleteById(userId);
+
+        assertThatThrownBy(() -> requestService.createRequest(userId, 1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("User");
+    }
+
+    private static NewEventDto newEvent(Long categoryId) {
+        NewEventDto dto = new NewEventDto();
+        dto.setAnnotation("Аннотация события для проверки категории");
+        dto.setCategory(categoryId);
+        dto.setDescription("Описание события для проверки категории");
+        dto.setEventDate(LocalDateTime.now().plusDays(7).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        dto.setLocation(new Location(55.75f, 37.62f));
+        dto.setTitle("Событие");
+        return dto;
+    }
+}
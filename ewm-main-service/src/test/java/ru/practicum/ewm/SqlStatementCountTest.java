@@ -0,0 +1,301 @@
+package ru.practicum.ewm;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.comment.model.Comment;
+import ru.practicum.ewm.comment.repository.CommentRepository;
+import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.compilation.service.CompilationCache;
+import ru.practicum.ewm.compilation.service.CompilationChanged;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.model.ParticipationRequest;
+import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов списочных эндпоинтов не должно зависеть от числа строк в ответе:
+ * связи событий, комментариев и заявок загружаются по графам сущностей или пакетами, а не по одной.
+ * Каждый эндпоинт вызывается на маленьком наборе данных и на наборе в несколько раз больше.
+ * Полная страница не должна добавлять запрос {@code COUNT}.
+ * Категория по id читается из кэша до её изменения через админский API.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stats-server.url=http://localhost:1"
+})
+class SqlStatementCountTest {
+
+    private static final int FEW = 2;
+    private static final int MANY = 12;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private CompilationCache compilationCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void initiatorEvents_statementCountDoesNotDependOnRows() throws Exception {
+        User initiator = user();
+        String url = "/users/" + initiator.getId() + "/events?size=100";
+
+        events(initiator, FEW);
+        long few = countStatements(url);
+        events(initiator, MANY);
+        long many = countStatements(url);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void adminEvents_statementCountDoesNotDependOnRows() throws Exception {
+        List<User> initiators = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            initiators.add(user());
+        }
+        String users = String.join(",", initiators.stream().map(u -> u.getId().toString()).toList());
+        String url = "/admin/events?size=100&users=" + users;
+
+        for (int i = 0; i < FEW; i++) {
+            events(initiators.get(i), 1);
+        }
+        long few = countStatements(url);
+        for (int i = FEW; i < MANY; i++) {
+            events(initiators.get(i), 1);
+        }
+        long many = countStatements(url);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void adminEvents_fullPageIssuesNoCount_totalOnlyOnRequest() throws Exception {
+        User initiator = user();
+        events(initiator, 3);
+        String url = "/admin/events?users=" + initiator.getId();
+
+        long partialPage = countStatements(url + "&size=100");
+        long fullPage = countStatements(url + "&size=2");
+
+        statistics.clear();
+        mockMvc.perform(get(url + "&size=2&withTotal=true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"));
+        long withTotal = statistics.getPrepareStatementCount();
+
+        assertThat(fullPage).isEqualTo(partialPage);
+        assertThat(withTotal).isEqualTo(fullPage + 1);
+    }
+
+    @Test
+    void usersAndCategories_fullPageIssuesNoCount() throws Exception {
+        user();
+        user();
+        events(user(), 2);
+
+        assertThat(countStatements("/admin/users?size=1")).isEqualTo(countStatements("/admin/users?size=10000"));
+        assertThat(countStatements("/categories?size=1")).isEqualTo(countStatements("/categories?size=10000"));
+    }
+
+    @Test
+    void eventComments_statementCountDoesNotDependOnRows() throws Exception {
+        Event event = events(user(), 1).getFirst();
+        String url = "/events/" + event.getId() + "/comments?size=100";
+
+        comments(event, FEW);
+        long few = countStatements(url);
+        comments(event, MANY);
+        long many = countStatements(url);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void requesterRequests_statementCountDoesNotDependOnRows() throws Exception {
+        User requester = user();
+        String url = "/users/" + requester.getId() + "/requests";
+
+        requests(requester, FEW);
+        long few = countStatements(url);
+        requests(requester, MANY);
+        long many = countStatements(url);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void compilations_statementCountDoesNotDependOnRows_andCachedReadIssuesNone() throws Exception {
+        String url = "/compilations?pinned=true&size=100";
+
+        compilation(FEW);
+        compilationCache.onCompilationChanged(new CompilationChanged(null));
+        long few = countStatements(url);
+        compilation(MANY);
+        compilation(MANY);
+        compilationCache.onCompilationChanged(new CompilationChanged(null));
+        long many = countStatements(url);
+        long cached = countStatements(url);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(cached).isZero();
+    }
+
+    @Test
+    void category_cachedReadIssuesNone_untilAdminUpdate() throws Exception {
+        Category category = categoryRepository.save(Category.builder().name("category" + SEQUENCE.incrementAndGet()).build());
+        String url = "/categories/" + category.getId();
+
+        countStatements(url);
+        long cached = countStatements(url);
+        mockMvc.perform(patch("/admin/categories/" + category.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed" + category.getId() + "\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(cached).isZero();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("renamed" + category.getId()));
+    }
+
+    private long countStatements(String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User user() {
+        int n = SEQUENCE.incrementAndGet();
+        return userRepository.save(User.builder().name("user" + n).email("user" + n + "@test.ru").build());
+    }
+
+    /**
+     * Опубликованные события инициатора, каждое в своей категории.
+     */
+    private List<Event> events(User initiator, int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Category category = categoryRepository.save(
+                    Category.builder().name("category" + SEQUENCE.incrementAndGet()).build());
+            Event event = eventRepository.save(Event.builder()
+                    .annotation("Аннотация события для подсчёта запросов")
+                    .description("Описание")
+                    .title("Событие")
+                    .eventDate(LocalDateTime.now().plusDays(7))
+                    .location(new Location(55.75f, 37.62f))
+                    .paid(false)
+                    .participantLimit(0)
+                    .requestModeration(false)
+                    .category(category)
+                    .initiator(initiator)
+                    .build());
+            event.setState(State.PUBLISHED);
+            event.setPublishedOn(LocalDateTime.now());
+            events.add(eventRepository.save(event));
+        }
+        return events;
+    }
+
+    private void comments(Event event, int count) {
+        for (int i = 0; i < count; i++) {
+            commentRepository.save(Comment.builder()
+                    .text("Комментарий")
+                    .event(event)
+                    .author(user())
+                    .createdOn(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    private void requests(User requester, int count) {
+        for (Event event : events(user(), count)) {
+            requestRepository.save(ParticipationRequest.builder()
+                    .created(LocalDateTime.now())
+                    .event(event)
+                    .requester(requester)
+                    .status(RequestStatus.CONFIRMED)
+                    .build());
+        }
+    }
+
+    private void compilation(int events) {
+        List<Event> compiled = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            compiled.addAll(events(user(), 1));
+        }
+        compilationRepository.save(Compilation.builder()
+                .title("Подборка " + SEQUENCE.incrementAndGet())
+                .pinned(true)
+                .events(new HashSet<>(compiled))
+                .build());
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.ewm.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_loadsOnceWithinTtl() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMinutes(1), 10);
+
+        assertThat(cache.get(1L, () -> load("a"))).isEqualTo("a");
+        assertThat(cache.get(1L, () -> load("b"))).isEqualTo("a");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_reloadsAfterTtl() throws InterruptedException {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMillis(20), 10);
+
+        cache.get(1L, () -> load("a"));
+        Thread.sleep(50);
+
+        assertThat(cache.get(1L, () -> load("b"))).isEqualTo("b");
+    }
+
+    @Test
+    void get_nullIsNotCached() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMinutes(1), 10);
+
+        assertThat(cache.get(1L, () -> load(null))).isNull();
+        assertThat(cache.get(1L, () -> load("a"))).isEqualTo("a");
+    }
+
+    @Test
+    void get_valueLoadedBeforeInvalidationIsNotStored() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMinutes(1), 10);
+
+        String stale = cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return load("old");
+        });
+
+        assertThat(stale).isEqualTo("old");
+        assertThat(cache.get(1L, () -> load("new"))).isEqualTo("new");
+    }
+
+    @Test
+    void get_fullCacheDoesNotStoreNewKeys() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMinutes(1), 1);
+
+        cache.get(1L, () -> load("a"));
+        cache.get(2L, () -> load("b"));
+        cache.get(2L, () -> load("c"));
+
+        assertThat(cache.get(1L, () -> load("x"))).isEqualTo("a");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void invalidateAll_dropsEveryEntry() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(Duration.ofMinutes(1), 10);
+        cache.get(1L, () -> load("a"));
+        cache.get(2L, () -> load("b"));
+
+        cache.invalidateAll();
+
+        assertThat(cache.get(1L, () -> load("c"))).isEqualTo("c");
+        assertThat(cache.get(2L, () -> load("d"))).isEqualTo("d");
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
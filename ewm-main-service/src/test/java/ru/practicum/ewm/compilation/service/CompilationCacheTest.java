@@ -0,0 +1,155 @@
+package ru.practicum.ewm.compilation.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кэш подборок сбрасывается после изменения подборки, её события или категории события
+ * и не сбрасывается изменениями, которые его записей не касаются.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:compilationcache;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stats-server.url=http://localhost:1"
+})
+class CompilationCacheTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Test
+    void categoryRename_refreshesCachedCompilation() throws Exception {
+        Event event = event();
+        String url = "/compilations/" + compilation(event).getId();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        patchJson("/admin/categories/" + event.getCategory().getId(), "{\"name\":\"renamed" + event.getId() + "\"}");
+
+        mockMvc.perform(get(url))
+                .andExpect(jsonPath("$.events[0].category.name").value("renamed" + event.getId()));
+    }
+
+    @Test
+    void eventUpdate_refreshesCachedCompilation() throws Exception {
+        Event event = event();
+        String url = "/compilations/" + compilation(event).getId();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        patchJson("/admin/events/" + event.getId(), "{\"title\":\"Новое название\"}");
+
+        mockMvc.perform(get(url)).andExpect(jsonPath("$.events[0].title").value("Новое название"));
+    }
+
+    @Test
+    void compilationUpdate_refreshesCachedCompilation() throws Exception {
+        Compilation compilation = compilation(event());
+        String url = "/compilations/" + compilation.getId();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        patchJson("/admin/compilations/" + compilation.getId(), "{\"title\":\"Обновлённая подборка\"}");
+
+        mockMvc.perform(get(url)).andExpect(jsonPath("$.title").value("Обновлённая подборка"));
+    }
+
+    @Test
+    void unrelatedCategoryRename_keepsCachedCompilation() throws Exception {
+        String url = "/compilations/" + compilation(event()).getId();
+        Category other = categoryRepository.save(Category.builder().name("other" + SEQUENCE.incrementAndGet()).build());
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        patchJson("/admin/categories/" + other.getId(), "{\"name\":\"renamed" + other.getId() + "\"}");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private void patchJson(String url, String body) throws Exception {
+        mockMvc.perform(patch(url).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    private Compilation compilation(Event event) {
+        return compilationRepository.save(Compilation.builder()
+                .title("Подборка " + SEQUENCE.incrementAndGet())
+                .pinned(false)
+                .events(Set.of(event))
+                .build());
+    }
+
+    private Event event() {
+        int n = SEQUENCE.incrementAndGet();
+        User initiator = userRepository.save(User.builder().name("user" + n).email("user" + n + "@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("category" + n).build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Аннотация события из подборки")
+                .description("Описание")
+                .title("Событие")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.ewm.event.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeohashTest {
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    @Test
+    void encode_knownValues() {
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(57.64911, 10.40744)).hasSize(Geohash.PRECISION).startsWith("u4pruydqqvj");
+    }
+
+    @Test
+    void cover_precisionIsLargestWithCellsNotSmallerThanRadius() {
+        // Ячейка 5-го уровня — примерно 4.9 x 4.9 км, 6-го — 1.2 x 0.6 км
+        assertThat(cover(10, 20, 1)).allSatisfy(range -> assertThat(range.from()).hasSize(5));
+        assertThat(cover(10, 20, 4)).allSatisfy(range -> assertThat(range.from()).hasSize(5));
+        assertThat(cover(10, 20, 0.5)).allSatisfy(range -> assertThat(range.from()).hasSize(6));
+    }
+
+    @Test
+    void cover_centerCellAndEightNeighbours() {
+        List<Geohash.Range> ranges = cover(55.75, 37.62, 1);
+
+        assertThat(ranges).hasSize(9);
+        assertThat(ranges).extracting(Geohash.Range::from)
+                .doesNotHaveDuplicates()
+                .contains(Geohash.encode(55.75, 37.62, 5));
+    }
+
+    @Test
+    void cover_rangeUpperBoundIsNextPrefix() {
+        List<Geohash.Range> ranges = cover(55.75, 37.62, 1);
+
+        assertThat(ranges).contains(new Geohash.Range("ucfub", "ucfuc"));
+        // Перенос разряда: за «…z» следует увеличенный предыдущий символ
+        assertThat(ranges).contains(new Geohash.Range("ucfsz", "ucft"));
+        assertThat(ranges).allSatisfy(range -> assertThat(range.to()).isGreaterThan(range.from()));
+        // У последней ячейки сетки верхней границы нет
+        assertThat(cover(89.0, 179.99, 20)).anySatisfy(range -> {
+            assertThat(range.from()).matches("z+");
+            assertThat(range.to()).isNull();
+        });
+    }
+
+    @Test
+    void cover_containsEveryPointWithinRadius() {
+        assertCovers(55.75, 37.62, 5);
+        assertCovers(-33.86, 151.2, 30);
+        assertCovers(0, 0, 2);
+    }
+
+    @Test
+    void cover_wrapsLongitudeAt180() {
+        List<Geohash.Range> ranges = cover(0, 179.99, 5);
+
+        assertThat(contains(ranges, Geohash.encode(0, -179.99))).isTrue();
+        assertCovers(0, 179.99, 5);
+        assertCovers(0, -179.99, 5);
+    }
+
+    @Test
+    void cover_nearPole_clampsNeighbourCells() {
+        assertCovers(89.0, 10, 20);
+        assertCovers(-89.0, -120, 20);
+    }
+
+    @Test
+    void cover_circleReachingPole_noRanges() {
+        // У полюса круг захватывает любые долготы, и трёх ячеек по долготе не хватает
+        assertThat(cover(89.95, 10, 5)).isEmpty();
+        assertThat(cover(-89.85, 10, 10)).isEmpty();
+    }
+
+    @Test
+    void cover_radiusLargerThanCoarsestCell_noRanges() {
+        assertThat(cover(55.75, 37.62, 10_000)).isEmpty();
+    }
+
+    private static List<Geohash.Range> cover(double lat, double lon, double radiusKm) {
+        return Geohash.cover(lat, lon, radiusKm);
+    }
+
+    /**
+     * Случайные точки внутри круга, включая его край, попадают в один из диапазонов.
+     */
+    private static void assertCovers(double lat, double lon, double radiusKm) {
+        List<Geohash.Range> ranges = cover(lat, lon, radiusKm);
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            double distance = i % 4 == 0 ? radiusKm * 0.999 : radiusKm * Math.sqrt(random.nextDouble());
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double pointLat = lat + distance * Math.cos(bearing) / KM_PER_DEGREE;
+            double pointLon = lon + distance * Math.sin(bearing) / (KM_PER_DEGREE * Math.cos(Math.toRadians(pointLat)));
+            if (Math.abs(pointLat) > 90) continue;
+            pointLon = ((pointLon + 540) % 360) - 180;
+
+            String hash = Geohash.encode(pointLat, pointLon);
+            assertThat(contains(ranges, hash))
+                    .as("точка (%s, %s) в %s км от (%s, %s)", pointLat, pointLon, distance, lat, lon)
+                    .isTrue();
+        }
+    }
+
+    private static boolean contains(List<Geohash.Range> ranges, String hash) {
+        return ranges.stream().anyMatch(range -> hash.compareTo(range.from()) >= 0
+                && (range.to() == null || hash.compareTo(range.to()) < 0));
+    }
+}
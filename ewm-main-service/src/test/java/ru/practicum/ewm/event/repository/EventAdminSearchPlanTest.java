@@ -0,0 +1,157 @@
+package ru.practicum.ewm.event.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.ewm.PostgresTestDatabase;
+import ru.practicum.ewm.event.model.State;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Регрессионный тест плана админского поиска событий на PostgreSQL: SQL содержит только переданные фильтры,
+ * а на таблице с десятками тысяч событий планировщик выбирает под каждый фильтр свой индекс,
+ * а не полный просмотр таблицы или обход первичного ключа.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.ewm.event.repository.EventAdminSearchPlanTest$CapturingInspector")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventAdminSearchPlanTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2030, 1, 8, 0, 0);
+    private static final int PAGE_SIZE = 10;
+    private static final int EVENTS = 30_000;
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в БД.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "adminsearch");
+    }
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 1000 инициаторов, 50 категорий и события за десять лет: даты не связаны с id,
+     * а неделя диапазона отбирает доли процента событий, поэтому обход первичного ключа
+     * в порядке сортировки не выгоднее индекса по фильтру.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (name, email)"
+                + " SELECT 'user' || g, 'user' || g || '@test.ru' FROM generate_series(1, 1000) g");
+        jdbcTemplate.update("INSERT INTO categories (name) SELECT 'category' || g FROM generate_series(1, 50) g");
+        jdbcTemplate.update("INSERT INTO events (annotation, description, title, category_id, initiator_id,"
+                + " event_date, paid, participant_limit, request_moderation, state, created_on,"
+                + " confirmed_requests, views, lat, lon)"
+                + " SELECT 'annotation', 'description', 'title',"
+                + " (SELECT min(id) FROM categories) + g % 50, (SELECT min(id) FROM users) + g % 1000,"
+                + " TIMESTAMP '2025-01-01' + ((g * 7919) % 3650) * INTERVAL '1 day', false, 0, true,"
+                + " (ARRAY['PENDING', 'PUBLISHED', 'CANCELED'])[1 + g % 3], now(), 0, 0, 55.75, 37.62"
+                + " FROM generate_series(1, ?) g", EVENTS);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE categories");
+        jdbcTemplate.execute("ANALYZE events");
+    }
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void noFilters_noWhereClause() {
+        String sql = search(null, null, null, null, null);
+
+        assertThat(sql).doesNotContainIgnoringCase(" where ");
+    }
+
+    @Test
+    void usersFilter_usesInitiatorIndex() {
+        List<Long> users = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id LIMIT 2", Long.class);
+        String sql = search(users, null, null, null, null);
+
+        assertThat(sql).doesNotContainIgnoringCase("is null");
+        assertThat(explain(sql, users.get(0), users.get(1)))
+                .doesNotContain("Seq Scan on events")
+                .contains("idx_events_initiator_id");
+    }
+
+    @Test
+    void statesAndRange_usesStateEventDateIndex() {
+        String sql = search(null, List.of(State.PUBLISHED), null, START, END);
+
+        assertThat(sql).doesNotContainIgnoringCase("is null");
+        assertThat(explain(sql, State.PUBLISHED.name(), Timestamp.valueOf(START), Timestamp.valueOf(END)))
+                .doesNotContain("Seq Scan on events")
+                .contains("idx_events_state_event_date");
+    }
+
+    @Test
+    void categoriesAndRange_usesCategoryEventDateIndex() {
+        Long category = jdbcTemplate.queryForObject("SELECT min(id) FROM categories", Long.class);
+        String sql = search(null, null, List.of(category), START, END);
+
+        assertThat(sql).doesNotContainIgnoringCase("is null");
+        assertThat(explain(sql, category, Timestamp.valueOf(START), Timestamp.valueOf(END)))
+                .doesNotContain("Seq Scan on events")
+                .contains("idx_events_category_event_date");
+    }
+
+    /**
+     * Выполняет админский поиск и возвращает SQL основного запроса.
+     */
+    private String search(List<Long> users, List<State> states, List<Long> categories,
+                          LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        eventRepository.findSlice(EventSpecifications.adminFilters(users, states, categories, rangeStart, rangeEnd),
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from events "))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * План запроса с теми же значениями параметров, что передаёт Hibernate: значения фильтров в порядке
+     * их появления в SQL, затем смещение и размер страницы (на одну запись больше для признака следующей).
+     */
+    private String explain(String sql, Object... filterParams) {
+        List<Object> params = new ArrayList<>(List.of(filterParams));
+        params.add(0);
+        params.add(PAGE_SIZE + 1);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(params.size());
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, params.toArray()));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.ewm.event.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Счётчик просмотров в индексе только растёт: меньшее или такое же значение из статистики не записывается.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:raiseviews;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class EventRaiseViewsTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void raiseViews_onlyIncreases() {
+        Long eventId = event().getId();
+
+        assertThat(raise(eventId, 10)).isEqualTo(1);
+        assertThat(views(eventId)).isEqualTo(10);
+
+        assertThat(raise(eventId, 4)).isZero();
+        assertThat(views(eventId)).isEqualTo(10);
+
+        assertThat(raise(eventId, 10)).isZero();
+        assertThat(raise(eventId, 0)).isZero();
+        assertThat(views(eventId)).isEqualTo(10);
+
+        assertThat(raise(eventId, 11)).isEqualTo(1);
+        assertThat(views(eventId)).isEqualTo(11);
+    }
+
+    @Test
+    void raiseViews_unknownEvent_noUpdate() {
+        assertThat(raise(Long.MAX_VALUE, 5)).isZero();
+    }
+
+    private int raise(Long eventId, long views) {
+        Integer updated = transactionTemplate.execute(status -> eventRepository.raiseViews(eventId, views));
+        return updated != null ? updated : 0;
+    }
+
+    private long views(Long eventId) {
+        return eventRepository.findById(eventId).orElseThrow().getViews();
+    }
+
+    private Event event() {
+        User initiator = userRepository.save(User.builder().name("initiator").email("initiator@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("views").build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Событие со счётчиком просмотров")
+                .description("Описание")
+                .title("Событие")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
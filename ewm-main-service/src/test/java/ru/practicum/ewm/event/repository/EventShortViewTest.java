@@ -0,0 +1,93 @@
+package ru.practicum.ewm.event.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventShortView;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проекция {@link EventShortView} заполняет каждое поле своим столбцом — и в JPQL-запросах
+ * по {@link EventRepository#SHORT_VIEW}, и в Criteria-запросе поиска по расстоянию; оба строятся из одного
+ * списка {@link EventShortViewColumns}.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shortview;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class EventShortViewTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void jpqlColumns_matchTypedColumnList() {
+        assertThat(EventRepository.SHORT_VIEW_COLUMNS).isEqualTo(EventShortViewColumns.jpql());
+        assertThat(EventShortViewColumns.COLUMNS).hasSize(EventShortView.class.getRecordComponents().length);
+    }
+
+    @Test
+    void jpqlAndCriteriaProjections_mapEveryField() {
+        // Значения различаются, чтобы перестановка столбцов не осталась незамеченной
+        userRepository.save(User.builder().name("placeholder").email("placeholder@test.ru").build());
+        User initiator = userRepository.save(User.builder().name("Организатор").email("initiator@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("Концерты").build());
+        LocalDateTime eventDate = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime publishedOn = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Аннотация события")
+                .description("Описание")
+                .title("Заголовок события")
+                .eventDate(eventDate)
+                .location(new Location(55.75f, 37.62f))
+                .paid(true)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(publishedOn);
+        event.setConfirmedRequests(3L);
+        event.setViews(42L);
+        eventRepository.save(event);
+
+        EventShortView expected = new EventShortView(event.getId(), "Аннотация события", category.getId(),
+                "Концерты", 3L, eventDate, initiator.getId(), "Организатор", true, "Заголовок события", 42L,
+                publishedOn);
+
+        assertThat(eventRepository.findShortViewsByInitiatorId(initiator.getId(), PageRequest.of(0, 10)))
+                .containsExactly(expected);
+        Specification<Event> byId = (root, query, cb) -> cb.equal(root.get("id"), event.getId());
+        assertThat(eventRepository.findShortViewsByDistance(byId, 55.75, 37.62, 0, 10))
+                .containsExactly(expected);
+    }
+}
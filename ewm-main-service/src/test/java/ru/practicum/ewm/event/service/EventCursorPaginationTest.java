@@ -0,0 +1,166 @@
+package ru.practicum.ewm.event.service;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Постраничный поиск по курсору из заголовка {@code X-Next-Cursor}: при совпадающих датах или просмотрах
+ * страницы не повторяют и не пропускают события, а испорченный курсор даёт 400.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cursor;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class EventCursorPaginationTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void eventDate_tiedDates_pagesHaveNoDuplicatesOrGaps() throws Exception {
+        Category category = category("by-date");
+        LocalDateTime base = LocalDateTime.now().plusDays(30).withNano(0);
+        List<Event> events = new ArrayList<>();
+        // По три события на каждую из трёх дат: границы страниц размером 2 попадают внутрь групп
+        for (int i = 0; i < 9; i++) {
+            events.add(event(category, base.plusHours(i / 3), 0));
+        }
+        List<Long> expected = events.stream()
+                .sorted(Comparator.comparing(Event::getEventDate).thenComparing(Event::getId))
+                .map(Event::getId)
+                .toList();
+
+        assertThat(readAllPages(category, "EVENT_DATE")).isEqualTo(expected);
+    }
+
+    @Test
+    void views_tiedViews_pagesHaveNoDuplicatesOrGaps() throws Exception {
+        Category category = category("by-views");
+        LocalDateTime base = LocalDateTime.now().plusDays(30).withNano(0);
+        List<Event> events = new ArrayList<>();
+        long[] views = {5, 10, 5, 10, 0, 5, 10, 0, 5};
+        for (int i = 0; i < views.length; i++) {
+            events.add(event(category, base.plusMinutes(i), views[i]));
+        }
+        List<Long> expected = events.stream()
+                .sorted(Comparator.comparing(Event::getViews).reversed().thenComparing(Event::getId))
+                .map(Event::getId)
+                .toList();
+
+        assertThat(readAllPages(category, "VIEWS")).isEqualTo(expected);
+    }
+
+    @Test
+    void malformedCursor_badRequest() throws Exception {
+        mockMvc.perform(get("/events").param("after", "not a cursor!"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/events").param("after", "dnwxMHw"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorOfAnotherSort_badRequest() throws Exception {
+        String viewsCursor = EventCursor.afterViews(10, 1).encode();
+
+        mockMvc.perform(get("/events").param("sort", "EVENT_DATE").param("after", viewsCursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Проходит все страницы размером 2, каждый раз передавая курсор из предыдущего ответа.
+     */
+    private List<Long> readAllPages(Category category, String sort) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int page = 0; page < 20; page++) {
+            MockHttpServletRequestBuilder request = get("/events")
+                    .param("categories", String.valueOf(category.getId()))
+                    .param("rangeStart", LocalDateTime.now().format(FORMATTER))
+                    .param("sort", sort)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<Number> pageIds = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+            pageIds.forEach(id -> ids.add(id.longValue()));
+            cursor = result.getResponse().getHeader(NEXT_CURSOR);
+            if (cursor == null) {
+                return ids;
+            }
+        }
+        throw new AssertionError("Курсор не закончился за 20 страниц: " + ids);
+    }
+
+    private Category category(String name) {
+        return categoryRepository.save(Category.builder().name(name).build());
+    }
+
+    private Event event(Category category, LocalDateTime eventDate, long views) {
+        User initiator = userRepository.save(User.builder()
+                .name("initiator").email("initiator" + System.nanoTime() + "@test.ru").build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Событие для постраничного поиска")
+                .description("Описание")
+                .title("Событие")
+                .eventDate(eventDate)
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        event.setViews(views);
+        return eventRepository.save(event);
+    }
+}
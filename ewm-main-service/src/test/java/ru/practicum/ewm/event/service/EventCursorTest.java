@@ -0,0 +1,60 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.practicum.ewm.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+
+    @Test
+    void eventDateCursor_roundTrip() {
+        EventCursor cursor = EventCursor.afterEventDate(LocalDateTime.of(2030, 1, 15, 18, 30, 0, 123_456_000), 42);
+
+        assertThat(EventCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void eventDateCursor_wholeMinute_roundTrip() {
+        // LocalDateTime.toString опускает нулевые секунды — разбор должен это принимать
+        EventCursor cursor = EventCursor.afterEventDate(LocalDateTime.of(2030, 1, 15, 18, 30), 7);
+
+        assertThat(EventCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void viewsCursor_roundTrip() {
+        EventCursor cursor = EventCursor.afterViews(1_000_000L, Long.MAX_VALUE);
+
+        assertThat(EventCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encode_isUrlSafe() {
+        String value = EventCursor.afterViews(Long.MAX_VALUE, Long.MAX_VALUE).encode();
+
+        assertThat(value).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not a cursor!", "v|10|1|2", "x|10|1", "v|ten|1",
+            "v|10|", "d|2030-13-45T18:30|1"})
+    void decode_malformed_throwsValidationException(String raw) {
+        String value = raw.contains("|") ? base64(raw) : raw;
+
+        assertThatThrownBy(() -> EventCursor.decode(value))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Geohash;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Поиск событий по радиусу через geohash: в ответ попадают ровно события не дальше заданного расстояния,
+ * в том числе по другую сторону 180-го меридиана, а geohash старых строк заполняется при старте.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:geo;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class EventGeoSearchTest {
+
+    // Километров в градусе широты при радиусе Земли 6371.0088 км
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventGeoSearch eventGeoSearch;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void radius_returnsExactlyEventsWithinDistance() throws Exception {
+        double lat = 40.0;
+        double lon = -100.0;
+        Event near = event(lat + 1 / KM_PER_DEGREE, lon);
+        Event edge = event(lat - 4.9 / KM_PER_DEGREE, lon);
+        event(lat + 5.1 / KM_PER_DEGREE, lon);
+        event(lat, lon + 5.2 / (KM_PER_DEGREE * Math.cos(Math.toRadians(lat))));
+        event(lat + 50 / KM_PER_DEGREE, lon);
+
+        mockMvc.perform(get("/events")
+                        .param("lat", String.valueOf(lat))
+                        .param("lon", String.valueOf(lon))
+                        .param("radius", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(containsInAnyOrder(
+                        near.getId().intValue(), edge.getId().intValue())));
+    }
+
+    @Test
+    void radius_acrossAntimeridian() throws Exception {
+        Event west = event(-17.0, 179.99);
+        Event east = event(-17.0, -179.99);
+        event(-17.0, -179.9);
+
+        mockMvc.perform(get("/events")
+                        .param("lat", "-17.0")
+                        .param("lon", "179.995")
+                        .param("radius", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(containsInAnyOrder(
+                        west.getId().intValue(), east.getId().intValue())));
+    }
+
+    @Test
+    void init_backfillsMissingGeohash() {
+        Event event = event(59.93, 30.31);
+        jdbcTemplate.update("UPDATE events SET geohash = NULL WHERE id = ?", event.getId());
+
+        eventGeoSearch.init();
+
+        String geohash = jdbcTemplate.queryForObject(
+                "SELECT geohash FROM events WHERE id = ?", String.class, event.getId());
+        assertThat(geohash).isEqualTo(Geohash.encode(event.getLocation().getLat(), event.getLocation().getLon()));
+    }
+
+    private Event event(double lat, double lon) {
+        int n = SEQUENCE.incrementAndGet();
+        User initiator = userRepository.save(User.builder().name("user" + n).email("user" + n + "@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("category" + n).build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Событие для поиска по расстоянию")
+                .description("Описание")
+                .title("Событие " + n)
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location((float) lat, (float) lon))
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
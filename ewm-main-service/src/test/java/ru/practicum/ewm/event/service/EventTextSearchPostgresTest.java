@@ -0,0 +1,114 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.PostgresTestDatabase;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Полнотекстовый поиск событий на PostgreSQL: индекс строится после старта и валиден, слова ищутся по префиксу,
+ * текст без слов не находит ничего, а {@code sort=RELEVANCE} ставит совпадение в заголовке выше совпадения
+ * в аннотации и в описании.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventTextSearchPostgresTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "fulltext");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void fullTextIndex_isValid() {
+        Boolean valid = jdbcTemplate.queryForObject("SELECT i.indisvalid FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = 'idx_events_fts'", Boolean.class);
+
+        assertThat(valid).isTrue();
+    }
+
+    @Test
+    void relevance_titleThenAnnotationThenDescription_prefixMatch() throws Exception {
+        User initiator = userRepository.save(User.builder().name("initiator").email("initiator@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("music").build());
+        Event inDescription = event(initiator, category, "Вечер в парке",
+                "Открытая площадка для всех желающих в центре", "Играет оркестр, звучат саксофонисты");
+        Event inTitle = event(initiator, category, "Саксофонисты города",
+                "Открытая площадка для всех желающих в центре", "Описание без ключевого слова");
+        Event inAnnotation = event(initiator, category, "Музыка у реки",
+                "Выступают молодые саксофонисты со всей страны", "Описание без ключевого слова");
+        event(initiator, category, "Лекция по истории",
+                "Рассказ о старинных усадьбах и их владельцах", "Описание без ключевого слова");
+
+        mockMvc.perform(get("/events").param("text", "саксофон").param("sort", "RELEVANCE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(
+                        inTitle.getId().intValue(), inAnnotation.getId().intValue(), inDescription.getId().intValue())));
+    }
+
+    @Test
+    void textWithoutWords_findsNothing() throws Exception {
+        User initiator = userRepository.save(User.builder().name("symbols").email("symbols@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("symbols").build());
+        event(initiator, category, "Джаз!!! в парке", "Открытая площадка для всех желающих в центре",
+                "Описание без ключевого слова");
+
+        mockMvc.perform(get("/events").param("text", "!!!"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    private Event event(User initiator, Category category, String title, String annotation, String description) {
+        Event event = eventRepository.save(Event.builder()
+                .annotation(annotation)
+                .description(description)
+                .title(title)
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
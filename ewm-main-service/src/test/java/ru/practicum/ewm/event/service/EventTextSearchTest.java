@@ -0,0 +1,80 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventTextSearchTest {
+
+    @Test
+    void postgres_wordsBecomePrefixTerms() {
+        EventTextSearch search = search(true);
+
+        assertThat(search.toQuery("Джаз-концерт в Парке 2024!")).isEqualTo("джаз:* & концерт:* & в:* & парке:* & 2024:*");
+    }
+
+    @Test
+    void postgres_blankText_noFilter() {
+        EventTextSearch search = search(true);
+
+        assertThat(search.toQuery("  ")).isNull();
+        assertThat(search.toQuery(null)).isNull();
+        assertThat(search.matchesNothing("  ")).isFalse();
+        assertThat(search.matchesNothing(null)).isFalse();
+    }
+
+    @Test
+    void postgres_textWithoutWords_matchesNothing() {
+        EventTextSearch search = search(true);
+
+        assertThat(search.matchesNothing("!?-")).isTrue();
+        assertThat(search.matchesNothing("-")).isTrue();
+        assertThat(search.matchesNothing("концерт!")).isFalse();
+    }
+
+    @Test
+    void postgres_indexBuiltAfterStartup() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(true);
+        EventTextSearch search = new EventTextSearch(jdbcTemplate);
+
+        search.init();
+        verify(jdbcTemplate, never()).execute(any(String.class));
+
+        search.createIndex();
+        verify(jdbcTemplate).execute(startsWith("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_fts ON events"));
+    }
+
+    @Test
+    void otherDatabase_likePatternAndNoIndex() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(false);
+        EventTextSearch search = new EventTextSearch(jdbcTemplate);
+        search.init();
+        search.createIndex();
+
+        assertThat(search.toQuery("Джаз-Концерт")).isEqualTo("%джаз-концерт%");
+        assertThat(search.toQuery("")).isNull();
+        assertThat(search.matchesNothing("!!!")).isFalse();
+        verify(jdbcTemplate, never()).execute(any(String.class));
+    }
+
+    private static EventTextSearch search(boolean postgres) {
+        EventTextSearch search = new EventTextSearch(jdbcTemplate(postgres));
+        search.init();
+        return search;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate jdbcTemplate(boolean postgres) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(postgres);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.event.model.EventPublication;
+import ru.practicum.ewm.event.repository.EventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EventViewsSynchronizerTest {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final EventStatsEnricher eventStatsEnricher = mock(EventStatsEnricher.class);
+    private final EventViewsSynchronizer synchronizer = synchronizer();
+
+    @Test
+    void recent_onlyViewedEventsAreQueried() {
+        EventPublication viewed = new EventPublication(1L, LocalDateTime.now().minusDays(1));
+        when(eventRepository.findPublished(List.of(1L))).thenReturn(List.of(viewed));
+        when(eventStatsEnricher.fetchViews(List.of(viewed))).thenReturn(Map.of(1L, 12L));
+
+        synchronizer.markViewed(1L);
+        synchronizer.synchronizeRecent();
+
+        verify(eventRepository).raiseViews(1L, 12L);
+        verify(eventRepository, never()).findPublishedAfter(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void recent_nothingViewed_noStatsRequest() {
+        synchronizer.synchronizeRecent();
+
+        verifyNoInteractions(eventStatsEnricher);
+    }
+
+    @Test
+    void recent_viewsOlderThanWindowAreForgotten() {
+        @SuppressWarnings("unchecked")
+        Map<Long, Instant> viewed = (Map<Long, Instant>) ReflectionTestUtils.getField(synchronizer, "viewed");
+        viewed.put(1L, Instant.now().minus(Duration.ofMinutes(6)));
+        synchronizer.markViewed(2L);
+
+        synchronizer.synchronizeRecent();
+
+        verify(eventRepository).findPublished(List.of(2L));
+        assertThat(viewed).containsOnlyKeys(2L);
+    }
+
+    @Test
+    void all_walksPublishedEventsInBatches() {
+        ReflectionTestUtils.setField(synchronizer, "batchSize", 2);
+        List<EventPublication> first = List.of(publication(1L), publication(2L));
+        List<EventPublication> second = List.of(publication(5L));
+        when(eventRepository.findPublishedAfter(0L, Limit.of(2))).thenReturn(first);
+        when(eventRepository.findPublishedAfter(2L, Limit.of(2))).thenReturn(second);
+        when(eventStatsEnricher.fetchViews(anyCollection())).thenReturn(Map.of());
+
+        synchronizer.synchronizeAll();
+
+        verify(eventStatsEnricher).fetchViews(first);
+        verify(eventStatsEnricher).fetchViews(second);
+    }
+
+    private EventViewsSynchronizer synchronizer() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        EventViewsSynchronizer result = new EventViewsSynchronizer(eventRepository, eventStatsEnricher, transactionTemplate);
+        ReflectionTestUtils.setField(result, "batchSize", 200);
+        ReflectionTestUtils.setField(result, "recentWindow", Duration.ofMinutes(5));
+        return result;
+    }
+
+    private static EventPublication publication(long id) {
+        return new EventPublication(id, LocalDateTime.now().minusDays(1));
+    }
+}
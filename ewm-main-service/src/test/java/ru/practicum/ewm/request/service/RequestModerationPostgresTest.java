@@ -0,0 +1,99 @@
+package ru.practicum.ewm.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.ewm.PostgresTestDatabase;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateResult;
+import ru.practicum.ewm.request.dto.ParticipationRequestDto;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Модерация события с ожидающими заявками сверх лимита параметров PostgreSQL (32767):
+ * автоматическое отклонение не передаёт id заявок в параметрах запроса.
+ */
+@SpringBootTest
+class RequestModerationPostgresTest {
+
+    private static final int PENDING = 40_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "moderation");
+    }
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void confirmationFillingLimit_rejectsAllOtherPendingRequests() {
+        Event event = event(2);
+        jdbcTemplate.update("INSERT INTO users (name, email)"
+                + " SELECT 'user' || g, 'user' || g || '@test.ru' FROM generate_series(1, ?) g", PENDING);
+        jdbcTemplate.update("INSERT INTO participation_requests (created, event_id, requester_id, status)"
+                + " SELECT now(), ?, id, 'PENDING' FROM users WHERE id <> ?",
+                event.getId(), event.getInitiator().getId());
+        List<Long> requestIds = jdbcTemplate.queryForList(
+                "SELECT id FROM participation_requests ORDER BY id DESC LIMIT 3", Long.class);
+
+        EventRequestStatusUpdateResult result = requestService.updateRequestsStatus(event.getInitiator().getId(),
+                event.getId(), new EventRequestStatusUpdateRequest(requestIds, "CONFIRMED"));
+
+        assertThat(result.getConfirmedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(requestIds.get(2), requestIds.get(1));
+        assertThat(result.getRejectedRequests()).hasSize(PENDING - 2)
+                .extracting(ParticipationRequestDto::getStatus).containsOnly("REJECTED");
+        assertThat(jdbcTemplate.queryForList("SELECT status || ':' || count(*) FROM participation_requests"
+                + " GROUP BY status ORDER BY status", String.class))
+                .containsExactly("CONFIRMED:2", "REJECTED:" + (PENDING - 2));
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests()).isEqualTo(2);
+    }
+
+    private Event event(int participantLimit) {
+        User initiator = userRepository.save(User.builder().name("initiator").email("initiator@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("concerts").build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Событие с очередью заявок на модерацию")
+                .description("Описание")
+                .title("Событие")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(true)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
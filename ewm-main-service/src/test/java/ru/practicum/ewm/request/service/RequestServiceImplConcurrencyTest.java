@@ -0,0 +1,154 @@
+package ru.practicum.ewm.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест приёма заявок: сотни одновременных заявок в событие без модерации
+ * не должны превысить лимит участников, а в событии без лимита счётчик должен учесть каждую заявку.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:requests;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class RequestServiceImplConcurrencyTest {
+
+    private static final int PARTICIPANT_LIMIT = 50;
+    private static final int REQUESTERS = 300;
+    private static final int THREADS = 32;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void createRequest_concurrentRequests_neverExceedParticipantLimit() throws Exception {
+        Long eventId = event(PARTICIPANT_LIMIT);
+        List<Long> requesterIds = requesters(REQUESTERS);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger limitReached = new AtomicInteger();
+        submitConcurrently(requesterIds, eventId, accepted, limitReached);
+
+        long confirmedRows = requestRepository.findAllByEventId(eventId).stream()
+                .filter(r -> r.getStatus() == RequestStatus.CONFIRMED)
+                .count();
+        assertThat(accepted.get()).isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(limitReached.get()).isEqualTo(REQUESTERS - PARTICIPANT_LIMIT);
+        assertThat(confirmedRows).isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(eventRepository.findById(eventId).orElseThrow().getConfirmedRequests())
+                .isEqualTo(PARTICIPANT_LIMIT);
+    }
+
+    @Test
+    void createRequest_unlimitedEvent_everyConfirmationCounted() throws Exception {
+        int requesters = 100;
+        Long eventId = event(0);
+        List<Long> requesterIds = requesters(requesters);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger limitReached = new AtomicInteger();
+        submitConcurrently(requesterIds, eventId, accepted, limitReached);
+
+        assertThat(accepted.get()).isEqualTo(requesters);
+        assertThat(eventRepository.findById(eventId).orElseThrow().getConfirmedRequests()).isEqualTo(requesters);
+    }
+
+    private void submitConcurrently(List<Long> requesterIds, Long eventId,
+                                    AtomicInteger accepted, AtomicInteger limitReached) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long requesterId : requesterIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        requestService.createRequest(requesterId, eventId);
+                        accepted.incrementAndGet();
+                    } catch (ConflictException e) {
+                        limitReached.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> requesters(int count) {
+        List<Long> requesterIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int n = SEQUENCE.incrementAndGet();
+            requesterIds.add(userRepository.save(
+                    User.builder().name("user" + n).email("user" + n + "@test.ru").build()).getId());
+        }
+        return requesterIds;
+    }
+
+    private Long event(int participantLimit) {
+        int n = SEQUENCE.incrementAndGet();
+        User initiator = userRepository.save(User.builder().name("initiator").email("initiator" + n + "@test.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("concerts" + n).build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Популярное событие для нагрузочного теста")
+                .description("Описание")
+                .title("Популярное событие")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(false)
+                .category(category)
+                .initiator(initiator)
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event).getId();
+    }
+}
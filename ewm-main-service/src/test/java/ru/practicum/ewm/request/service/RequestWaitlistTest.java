@@ -0,0 +1,292 @@
+package ru.practicum.ewm.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.dto.UpdateEventAdminRequest;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.Location;
+import ru.practicum.ewm.event.model.State;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventService;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateResult;
+import ru.practicum.ewm.request.dto.ParticipationRequestDto;
+import ru.practicum.ewm.request.mapper.RequestMapper;
+import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Лист ожидания: заявки в событие с модерацией, лимит которого заняли подтверждённые заявки, встают в очередь
+ * и выводятся из неё в порядке подачи, когда лимит увеличивается. Ожидающие решения заявки мест не занимают.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:waitlist;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+class RequestWaitlistTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private RequestMapper requestMapper;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void moderatedEvent_pendingRequestsDoNotTakeSeats() {
+        Event event = event(2, true);
+
+        List<ParticipationRequestDto> requests = requests(event, 4);
+
+        assertThat(statuses(requests)).containsOnly("PENDING");
+    }
+
+    @Test
+    void moderatedEvent_requestBeyondPendingCountStaysModeratable() {
+        Event event = event(2, true);
+        List<ParticipationRequestDto> requests = requests(event, 3);
+
+        requestService.updateRequestsStatus(event.getInitiator().getId(), event.getId(),
+                new EventRequestStatusUpdateRequest(ids(requests.subList(0, 2)), "REJECTED"));
+        EventRequestStatusUpdateResult result = requestService.updateRequestsStatus(event.getInitiator().getId(),
+                event.getId(), new EventRequestStatusUpdateRequest(List.of(requests.get(2).getId()), "CONFIRMED"));
+
+        assertThat(result.getConfirmedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(requests.get(2).getId());
+        assertThat(currentStatuses(requests)).containsExactly(
+                RequestStatus.REJECTED, RequestStatus.REJECTED, RequestStatus.CONFIRMED);
+    }
+
+    @Test
+    void moderatedEvent_confirmationFillingLimitRejectsOtherPendingRequests() {
+        Event event = event(2, true);
+        List<ParticipationRequestDto> requests = requests(event, 3);
+
+        EventRequestStatusUpdateResult result = requestService.updateRequestsStatus(event.getInitiator().getId(),
+                event.getId(), new EventRequestStatusUpdateRequest(ids(requests.subList(0, 2)), "CONFIRMED"));
+
+        assertThat(result.getConfirmedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(requests.get(0).getId(), requests.get(1).getId());
+        assertThat(result.getRejectedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(requests.get(2).getId());
+        assertThat(currentStatuses(requests)).containsExactly(
+                RequestStatus.CONFIRMED, RequestStatus.CONFIRMED, RequestStatus.REJECTED);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void fullModeratedEvent_requestsAreWaitlisted() {
+        Event event = fullEvent(1);
+
+        List<ParticipationRequestDto> requests = requests(event, 2);
+
+        assertThat(statuses(requests)).containsOnly("WAITLISTED");
+        assertThatThrownBy(() -> requestService.updateRequestsStatus(event.getInitiator().getId(), event.getId(),
+                new EventRequestStatusUpdateRequest(ids(requests), "REJECTED")))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void raisedLimit_moderatedEvent_wholeWaitlistReturnsToModerationInOrder() {
+        Event event = fullEvent(1);
+        List<ParticipationRequestDto> requests = requests(event, 3);
+
+        updateEvent(event.getId(), 2, null);
+
+        assertThat(currentStatuses(requests)).containsOnly(RequestStatus.PENDING);
+
+        EventRequestStatusUpdateResult result = requestService.updateRequestsStatus(event.getInitiator().getId(),
+                event.getId(), new EventRequestStatusUpdateRequest(List.of(requests.get(2).getId()), "CONFIRMED"));
+
+        assertThat(result.getRejectedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(requests.get(0).getId(), requests.get(1).getId());
+    }
+
+    @Test
+    void raisedLimit_unmoderatedEvent_confirmsFreeSeatsInOrder() {
+        Event event = fullEvent(1);
+        List<ParticipationRequestDto> requests = requests(event, 3);
+
+        updateEvent(event.getId(), 3, false);
+
+        assertThat(currentStatuses(requests)).containsExactly(
+                RequestStatus.CONFIRMED, RequestStatus.CONFIRMED, RequestStatus.WAITLISTED);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests()).isEqualTo(3);
+    }
+
+    @Test
+    void unmoderatedEvent_fullEventRejectsNewRequest() {
+        Event event = event(1, false);
+        requests(event, 1);
+
+        assertThatThrownBy(() -> requestService.createRequest(user().getId(), event.getId()))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void cancel_waitlistedLeavesQueue_confirmedIsRejected() {
+        Event event = fullEvent(1);
+        List<ParticipationRequestDto> requests = requests(event, 2);
+        ParticipationRequestDto confirmed = requestRepository.findAllByEventId(event.getId()).stream()
+                .filter(r -> r.getStatus() == RequestStatus.CONFIRMED)
+                .map(requestMapper::toDto)
+                .findFirst()
+                .orElseThrow();
+
+        requestService.cancelRequest(requests.get(0).getRequester(), requests.get(0).getId());
+        updateEvent(event.getId(), 2, null);
+
+        assertThat(currentStatuses(requests)).containsExactly(RequestStatus.CANCELED, RequestStatus.PENDING);
+        assertThatThrownBy(() -> requestService.cancelRequest(confirmed.getRequester(), confirmed.getId()))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void concurrentRequestsAndConfirmation_fullEventQueuesEveryLateRequest() throws Exception {
+        int limit = 10;
+        Event event = event(limit, true);
+        List<ParticipationRequestDto> pending = requests(event, limit);
+        List<Long> requesters = new ArrayList<>();
+        for (int i = 0; i < limit * 2; i++) {
+            requesters.add(user().getId());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(limit);
+        try {
+            List<Future<ParticipationRequestDto>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                requestService.updateRequestsStatus(event.getInitiator().getId(), event.getId(),
+                        new EventRequestStatusUpdateRequest(ids(pending), "CONFIRMED"));
+                return null;
+            }));
+            for (Long requester : requesters) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return requestService.createRequest(requester, event.getId());
+                }));
+            }
+            start.countDown();
+            for (Future<ParticipationRequestDto> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Заявка, поданная до подтверждения, отклонена вместе с ним, поданная после — в листе ожидания;
+        // ожидающих решения заявок в заполненном событии не остаётся
+        List<RequestStatus> late = currentStatuses(requestRepository.findAllByEventId(event.getId()).stream()
+                .filter(r -> requesters.contains(r.getRequester().getId()))
+                .map(requestMapper::toDto)
+                .toList());
+        assertThat(currentStatuses(pending)).containsOnly(RequestStatus.CONFIRMED);
+        assertThat(late).hasSize(limit * 2).isSubsetOf(RequestStatus.REJECTED, RequestStatus.WAITLISTED);
+    }
+
+    private List<ParticipationRequestDto> requests(Event event, int count) {
+        List<ParticipationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(requestService.createRequest(user().getId(), event.getId()));
+        }
+        return requests;
+    }
+
+    private static List<Long> ids(List<ParticipationRequestDto> requests) {
+        return requests.stream().map(ParticipationRequestDto::getId).toList();
+    }
+
+    private void updateEvent(Long eventId, Integer participantLimit, Boolean requestModeration) {
+        UpdateEventAdminRequest request = new UpdateEventAdminRequest();
+        request.setParticipantLimit(participantLimit);
+        request.setRequestModeration(requestModeration);
+        eventService.updateEventByAdmin(eventId, request);
+    }
+
+    /**
+     * Событие с модерацией, лимит которого занят подтверждёнными заявками.
+     */
+    private Event fullEvent(int participantLimit) {
+        Event event = event(participantLimit, true);
+        List<ParticipationRequestDto> requests = requests(event, participantLimit);
+        requestService.updateRequestsStatus(event.getInitiator().getId(), event.getId(),
+                new EventRequestStatusUpdateRequest(ids(requests), "CONFIRMED"));
+        return event;
+    }
+
+    private static List<String> statuses(List<ParticipationRequestDto> requests) {
+        return requests.stream().map(ParticipationRequestDto::getStatus).toList();
+    }
+
+    private List<RequestStatus> currentStatuses(List<ParticipationRequestDto> requests) {
+        return requests.stream()
+                .map(r -> requestRepository.findById(r.getId()).orElseThrow().getStatus())
+                .toList();
+    }
+
+    private User user() {
+        int n = SEQUENCE.incrementAndGet();
+        return userRepository.save(User.builder().name("user" + n).email("user" + n + "@test.ru").build());
+    }
+
+    private Event event(int participantLimit, boolean requestModeration) {
+        Category category = categoryRepository.save(
+                Category.builder().name("category" + SEQUENCE.incrementAndGet()).build());
+        Event event = eventRepository.save(Event.builder()
+                .annotation("Событие с ограниченным числом участников")
+                .description("Описание")
+                .title("Событие")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(requestModeration)
+                .category(category)
+                .initiator(user())
+                .build());
+        event.setState(State.PUBLISHED);
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
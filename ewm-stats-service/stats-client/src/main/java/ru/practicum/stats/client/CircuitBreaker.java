@@ -0,0 +1,89 @@
+package ru.practicum.stats.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Автоматический выключатель обращений к сервису статистики.
+ * <p>
+ * После {@code failureThreshold} ошибок подряд выключатель размыкается, и обращения сразу отклоняются,
+ * не занимая потоки ожиданием таймаутов. Через {@code openDuration} пропускается один пробный запрос:
+ * успех замыкает выключатель, ошибка снова размыкает его.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    private final LongAdder rejected = new LongAdder();
+
+    CircuitBreaker(StatsClientProperties.CircuitBreaker settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CircuitBreaker(StatsClientProperties.CircuitBreaker settings, LongSupplier nanoClock) {
+        this.failureThreshold = settings.getFailureThreshold();
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Разрешает обращение или отклоняет его, пока выключатель разомкнут.
+     * В разомкнутом состоянии по истечении {@code openDuration} разрешает ровно одно пробное обращение.
+     */
+    boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            log.info("Пробное обращение к сервису статистики");
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Сервис статистики снова доступен, обращения возобновлены");
+        }
+    }
+
+    void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAt = nanoClock.getAsLong();
+            if (state.compareAndSet(current, State.OPEN)) {
+                log.warn("Сервис статистики недоступен ({} ошибок подряд), обращения приостановлены", failures);
+            }
+        }
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+}
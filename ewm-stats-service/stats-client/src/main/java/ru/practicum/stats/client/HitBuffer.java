@@ -0,0 +1,188 @@
+package ru.practicum.stats.client;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.client.StatsClientProperties.OverflowPolicy;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченный буфер хитов с фоновой отправкой пакетами.
+ * <p>
+ * Хиты складываются в неблокирующую очередь, свободные места учитываются семафором.
+ * Отдельный поток-отправитель забирает накопленное, когда набирается полный пакет
+ * или истекает интервал отправки. При переполнении действует заданная {@link OverflowPolicy}.
+ */
+@Slf4j
+class HitBuffer implements AutoCloseable {
+
+    private final ConcurrentLinkedQueue<EndpointHitDto> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore freeSlots;
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Consumer<List<EndpointHitDto>> sender;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param settings настройки очереди и отправки
+     * @param sender   отправляет пакет в сервис статистики; исключение означает, что пакет не доставлен
+     */
+    HitBuffer(StatsClientProperties.Hit settings, Consumer<List<EndpointHitDto>> sender) {
+        this.capacity = settings.getQueueCapacity();
+        this.batchSize = settings.getBatchSize();
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.blockTimeout = settings.getBlockTimeout();
+        this.sender = sender;
+        this.freeSlots = new Semaphore(capacity);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = settings.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ставит хит в очередь на отправку.
+     *
+     * @return {@code false}, если хит отброшен из-за переполнения
+     */
+    boolean offer(EndpointHitDto hit) {
+        if (!acquireSlot()) {
+            dropped.increment();
+            return false;
+        }
+        queue.offer(hit);
+        enqueued.increment();
+
+        if (size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Занимает место в очереди согласно политике переполнения.
+     * При DROP_OLDEST место самого старого хита переходит новому без освобождения семафора.
+     */
+    private boolean acquireSlot() {
+        if (freeSlots.tryAcquire()) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                return false;
+            case BLOCK:
+                try {
+                    return freeSlots.tryAcquire(blockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_OLDEST:
+            default:
+                while (true) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                        return true;
+                    }
+                    // Очередь успели опустошить — место должно было освободиться
+                    if (freeSlots.tryAcquire()) {
+                        return true;
+                    }
+                }
+        }
+    }
+
+    /**
+     * Отправляет всё накопленное пакетами не больше {@code batchSize}.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        List<EndpointHitDto> batch = drain();
+        while (!batch.isEmpty()) {
+            try {
+                sender.accept(batch);
+                flushed.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                log.warn("Не удалось отправить пакет из {} хитов в сервис статистики: {}", batch.size(), e.getMessage());
+            }
+            batch = drain();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Ошибка фоновой отправки хитов: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<EndpointHitDto> drain() {
+        List<EndpointHitDto> batch = new ArrayList<>(Math.min(batchSize, size()));
+        EndpointHitDto hit;
+        while (batch.size() < batchSize && (hit = queue.poll()) != null) {
+            batch.add(hit);
+            freeSlots.release();
+        }
+        return batch;
+    }
+
+    /**
+     * Останавливает фоновую отправку и синхронно отправляет остаток очереди.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    int size() {
+        return capacity - freeSlots.availablePermits();
+    }
+
+    long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    long getFlushed() {
+        return flushed.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+}
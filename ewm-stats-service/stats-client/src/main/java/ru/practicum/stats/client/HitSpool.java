@@ -0,0 +1,440 @@
+package ru.practicum.stats.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Локальный журнал хитов, которые не удалось отправить в сервис статистики.
+ * <p>
+ * Пакеты дописываются в конец файлов-сегментов {@code hits-<номер>.seg}; каждая запись — длина, CRC32
+ * и JSON пакета. Когда сегмент достигает {@code segmentSize}, начинается следующий. Позиция первой
+ * неотправленной записи хранится в файле {@code checkpoint}, который заменяется атомарно.
+ * Фоновый поток по порядку отправляет записи и сдвигает позицию; отправленные сегменты удаляются.
+ * <p>
+ * При старте недописанный хвост последнего сегмента (после аварийной остановки) отрезается.
+ * Если журнал превышает {@code maxSize}, удаляются самые старые сегменты. Доставка «хотя бы один раз»:
+ * пакет, отправленный перед сбоем до сохранения позиции, после перезапуска будет отправлен повторно.
+ */
+@Slf4j
+class HitSpool implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "hits-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final TypeReference<List<EndpointHitDto>> BATCH_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Запись журнала: пакет хитов, его позиция и позиция сразу за ним.
+     */
+    private record Record(long segment, long offset, long nextOffset, List<EndpointHitDto> hits) {
+    }
+
+    private final Path dir;
+    private final long segmentSize;
+    private final long maxSize;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+    private final Consumer<List<EndpointHitDto>> sender;
+    private final ScheduledExecutorService replayer;
+
+    /**
+     * Размеры сегментов по номерам.
+     */
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+    private long readSegment;
+    private long readOffset;
+    private long writeSegment;
+    private FileChannel writer;
+
+    private final LongAdder spooled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param settings     настройки журнала
+     * @param objectMapper сериализует пакеты хитов
+     * @param sender       отправляет пакет в сервис статистики; исключение означает, что сервис недоступен
+     */
+    HitSpool(StatsClientProperties.Spool settings, ObjectMapper objectMapper, Consumer<List<EndpointHitDto>> sender) {
+        this.dir = Path.of(settings.getDir());
+        this.segmentSize = settings.getSegmentSize().toBytes();
+        this.maxSize = settings.getMaxSize().toBytes();
+        this.fsync = settings.isFsync();
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал хитов " + dir, e);
+        }
+        this.replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-spool-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = settings.getReplayInterval().toMillis();
+        replayer.scheduleWithFixedDelay(this::replaySafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Дописывает пакет в журнал.
+     *
+     * @return {@code false}, если пакет не поместился в {@code maxSize} или не был записан
+     */
+    synchronized boolean append(List<EndpointHitDto> hits) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(hits);
+            long recordSize = HEADER_BYTES + payload.length;
+            if (!ensureCapacity(recordSize)) {
+                dropped.add(hits.size());
+                return false;
+            }
+            long currentSize = segments.get(writeSegment);
+            if (currentSize > 0 && currentSize + recordSize > segmentSize) {
+                rotate();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate((int) recordSize);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            while (buffer.hasRemaining()) {
+                writer.write(buffer);
+            }
+            if (fsync) {
+                writer.force(false);
+            }
+            segments.merge(writeSegment, recordSize, Long::sum);
+            spooled.add(hits.size());
+            return true;
+        } catch (IOException e) {
+            dropped.add(hits.size());
+            log.error("Не удалось записать {} хитов в журнал: {}", hits.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Отправляет записи журнала по порядку, пока журнал не опустеет или сервис статистики не откажет.
+     * Отправка идёт без блокировки журнала, чтобы запись новых пакетов её не ждала.
+     *
+     * @return число отправленных хитов
+     */
+    int replay() {
+        int sent = 0;
+        while (true) {
+            Record record;
+            synchronized (this) {
+                record = readNext();
+            }
+            if (record == null) {
+                return sent;
+            }
+            try {
+                sender.accept(record.hits());
+            } catch (Exception e) {
+                log.debug("Сервис статистики недоступен, отправка журнала отложена: {}", e.getMessage());
+                return sent;
+            }
+            synchronized (this) {
+                // Пока пакет отправлялся, его сегмент мог быть удалён из-за переполнения журнала
+                if (readSegment == record.segment() && readOffset == record.offset()) {
+                    advance(record.segment(), record.nextOffset());
+                }
+            }
+            replayed.add(record.hits().size());
+            sent += record.hits().size();
+        }
+    }
+
+    private void replaySafely() {
+        try {
+            int sent = replay();
+            if (sent > 0) {
+                log.info("Из журнала в сервис статистики отправлено {} хитов", sent);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка отправки журнала хитов: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Читает запись в позиции чтения. Повреждённый или недописанный остаток сегмента пропускается.
+     */
+    private Record readNext() {
+        while (true) {
+            long size = segments.getOrDefault(readSegment, 0L);
+            if (readOffset < size) {
+                try (FileChannel channel = FileChannel.open(segmentPath(readSegment), StandardOpenOption.READ)) {
+                    byte[] payload = readRecord(channel, readOffset, size);
+                    if (payload != null) {
+                        List<EndpointHitDto> hits = objectMapper.readValue(payload, BATCH_TYPE);
+                        return new Record(readSegment, readOffset, readOffset + HEADER_BYTES + payload.length, hits);
+                    }
+                    log.warn("Повреждённая запись в сегменте {} на позиции {}, остаток сегмента пропущен",
+                            readSegment, readOffset);
+                } catch (IOException e) {
+                    log.warn("Не удалось прочитать сегмент {} журнала хитов, он пропущен: {}",
+                            readSegment, e.getMessage());
+                }
+                advance(readSegment, size);
+                continue;
+            }
+            if (readSegment >= writeSegment) {
+                return null;
+            }
+            advance(readSegment, size);
+        }
+    }
+
+    /**
+     * Сдвигает позицию чтения, удаляя прочитанные сегменты, и сохраняет её.
+     * Полностью прочитанный текущий сегмент заменяется новым, чтобы журнал не рос без отправленных данных.
+     */
+    private void advance(long segment, long offset) {
+        readSegment = segment;
+        readOffset = offset;
+        try {
+            while (readSegment < writeSegment && readOffset >= segments.getOrDefault(readSegment, 0L)) {
+                deleteSegment(readSegment);
+                readSegment = segments.ceilingKey(readSegment + 1);
+                readOffset = 0;
+            }
+            if (readSegment == writeSegment && readOffset > 0 && readOffset >= segments.get(writeSegment)) {
+                rotate();
+                deleteSegment(readSegment);
+                readSegment = writeSegment;
+                readOffset = 0;
+            }
+            writeCheckpoint();
+        } catch (IOException e) {
+            log.error("Не удалось сохранить позицию журнала хитов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Освобождает место под запись, удаляя самые старые сегменты, кроме текущего.
+     */
+    private boolean ensureCapacity(long recordSize) throws IOException {
+        while (pendingSize() + recordSize > maxSize && readSegment < writeSegment) {
+            long oldest = readSegment;
+            long lost = countHits(oldest, readOffset);
+            log.warn("Журнал хитов превысил {} байт, удалён сегмент {} ({} хитов)", maxSize, oldest, lost);
+            dropped.add(lost);
+            advance(oldest, segments.get(oldest));
+        }
+        return pendingSize() + recordSize <= maxSize;
+    }
+
+    private long countHits(long segment, long fromOffset) {
+        long size = segments.get(segment);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            long offset = fromOffset;
+            byte[] payload;
+            while (offset < size && (payload = readRecord(channel, offset, size)) != null) {
+                count += objectMapper.readValue(payload, BATCH_TYPE).size();
+                offset += HEADER_BYTES + payload.length;
+            }
+        } catch (IOException e) {
+            log.debug("Не удалось подсчитать хиты сегмента {}: {}", segment, e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Читает тело записи по смещению или возвращает {@code null}, если запись неполная или не сходится CRC.
+     */
+    private static byte[] readRecord(FileChannel channel, long offset, long size) throws IOException {
+        if (offset + HEADER_BYTES > size) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, offset);
+        header.flip();
+        int length = header.getInt();
+        int expectedCrc = header.getInt();
+        if (length < 0 || offset + HEADER_BYTES + length > size) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, offset + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        return (int) crc.getValue() == expectedCrc ? payload.array() : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new IOException("Неожиданный конец файла");
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * Восстанавливает состояние журнала после перезапуска.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        long segment = Long.parseLong(
+                                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(segment, segmentPath(segment).toFile().length());
+                    });
+        }
+
+        readCheckpoint();
+        for (Long segment : segments.headMap(readSegment).keySet().toArray(Long[]::new)) {
+            deleteSegment(segment);
+        }
+
+        if (segments.isEmpty()) {
+            writeSegment = readSegment;
+            readOffset = 0;
+            segments.put(writeSegment, 0L);
+        } else {
+            writeSegment = segments.lastKey();
+            if (!segments.containsKey(readSegment)) {
+                readSegment = segments.firstKey();
+                readOffset = 0;
+            }
+        }
+        writer = FileChannel.open(segmentPath(writeSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        truncateTornTail();
+        writer.position(segments.get(writeSegment));
+        readOffset = Math.min(readOffset, segments.get(readSegment));
+
+        long pending = pendingSize();
+        if (pending > 0) {
+            log.info("Журнал хитов {}: к отправке {} байт", dir, pending);
+        }
+    }
+
+    /**
+     * Отрезает запись, которую не успели дописать до аварийной остановки.
+     */
+    private void truncateTornTail() throws IOException {
+        long size = segments.get(writeSegment);
+        long offset = writeSegment == readSegment ? readOffset : 0;
+        byte[] payload;
+        while (offset < size && (payload = readRecord(writer, offset, size)) != null) {
+            offset += HEADER_BYTES + payload.length;
+        }
+        if (offset < size) {
+            log.warn("В сегменте {} журнала хитов отрезан недописанный хвост ({} байт)", writeSegment, size - offset);
+            writer.truncate(offset);
+            writer.force(true);
+            segments.put(writeSegment, offset);
+        }
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+        writeSegment++;
+        segments.put(writeSegment, 0L);
+        writer = FileChannel.open(segmentPath(writeSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteSegment(long segment) throws IOException {
+        Files.deleteIfExists(segmentPath(segment));
+        segments.remove(segment);
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        if (!Files.exists(checkpoint)) {
+            readSegment = segments.isEmpty() ? 0 : segments.firstKey();
+            readOffset = 0;
+            return;
+        }
+        String[] parts = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(" ");
+        readSegment = Long.parseLong(parts[0]);
+        readOffset = Long.parseLong(parts[1]);
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, readSegment + " " + readOffset, StandardCharsets.UTF_8);
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Объём ещё не отправленных записей в байтах.
+     */
+    synchronized long pendingSize() {
+        long total = 0;
+        for (Map.Entry<Long, Long> segment : segments.entrySet()) {
+            total += segment.getValue();
+        }
+        return total - readOffset;
+    }
+
+    /**
+     * Останавливает фоновую отправку и закрывает журнал; неотправленное остаётся на диске.
+     */
+    @Override
+    public void close() {
+        replayer.shutdown();
+        try {
+            if (!replayer.awaitTermination(5, TimeUnit.SECONDS)) {
+                replayer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            replayer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Не удалось закрыть журнал хитов: {}", e.getMessage());
+            }
+        }
+    }
+
+    long getSpooled() {
+        return spooled.sum();
+    }
+
+    long getReplayed() {
+        return replayed.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
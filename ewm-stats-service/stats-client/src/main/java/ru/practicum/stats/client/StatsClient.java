@@ -1,28 +1,46 @@
 package ru.practicum.stats.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.EventViewsQueryDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
+import ru.practicum.stats.dto.StatsQueryDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * HTTP-клиент для сервиса статистики.
  * Позволяет:
- * - Отправлять информацию о посещении (hit)
+ * - Отправлять информацию о посещении (hit) — сразу или через буфер с пакетной отправкой
+ * - Сохранять неотправленные хиты в локальный журнал и дослать их, когда сервис снова доступен
  * - Получать статистику просмотров
  */
 @Component
@@ -31,13 +49,125 @@ public class StatsClient {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final RestTemplate restTemplate;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final CircuitBreaker circuitBreaker;
+    @Nullable
+    private final HitBuffer hitBuffer;
+    @Nullable
+    private final HitSpool hitSpool;
+    private final boolean approximateUnique;
+    private final StatsQueryCache statsQueryCache;
+    private final int postThreshold;
+    private final int chunkSize;
+    private final ExecutorService queryExecutor;
+
+    public StatsClient(String serverUrl, RestTemplateBuilder builder) {
+        this(StatsClientProperties.forUrl(serverUrl), builder);
+    }
 
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(StatsClientProperties properties, RestTemplateBuilder builder) {
+        this.requestFactory = createRequestFactory(properties);
         this.restTemplate = builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory.class)
+                .uriTemplateHandler(new DefaultUriBuilderFactory(properties.getUrl()))
+                .requestFactory(() -> requestFactory)
+                .build();
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker());
+        this.hitSpool = properties.getHit().getSpool().getDir() != null
+                ? new HitSpool(properties.getHit().getSpool(), new ObjectMapper(), this::sendHitBatch)
+                : null;
+        this.hitBuffer = properties.getHit().getMode() == StatsClientProperties.HitMode.ASYNC
+                ? new HitBuffer(properties.getHit(), this::sendOrSpool)
+                : null;
+        this.approximateUnique = properties.isApproximateUnique();
+        this.statsQueryCache = new StatsQueryCache(properties.getStatsCache());
+        this.postThreshold = properties.getQuery().getPostThreshold();
+        this.chunkSize = properties.getQuery().getChunkSize();
+        this.queryExecutor = createQueryExecutor(properties.getQuery().getParallelism());
+    }
+
+    /**
+     * Останавливает фоновую отправку, дослав накопленные хиты (недоставленные остаются в журнале).
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (hitBuffer != null) {
+            hitBuffer.close();
+        }
+        if (hitSpool != null) {
+            hitSpool.close();
+        }
+        queryExecutor.shutdownNow();
+        try {
+            requestFactory.destroy();
+        } catch (Exception e) {
+            log.warn("Не удалось закрыть пул соединений с сервисом статистики: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Создаёт фабрику запросов с пулом соединений и таймаутами, чтобы медленный сервис статистики
+     * не удерживал потоки обработки запросов дольше заданного.
+     */
+    private static HttpComponentsClientHttpRequestFactory createRequestFactory(StatsClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getPool().getMaxTotal())
+                .setMaxConnPerRoute(properties.getPool().getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
                 .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getPool().getAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Пул потоков для параллельной отправки частей большого запроса статистики.
+     */
+    private static ExecutorService createQueryExecutor(int parallelism) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "stats-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Выполняет обращение к сервису статистики через автоматический выключатель.
+     * Ошибкой сервиса считаются сбой соединения, таймаут и ответ 5xx; ответ 4xx означает, что сервис доступен.
+     *
+     * @throws StatsServerUnavailableException если выключатель разомкнут и запрос не отправлялся
+     */
+    private <T> T callStatsServer(Supplier<T> request) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new StatsServerUnavailableException("Обращения к сервису статистики приостановлены");
+        }
+        try {
+            T result = request.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onSuccess();
+            throw e;
+        }
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     /**
@@ -47,6 +177,8 @@ public class StatsClient {
      * @param uri       URI запрошенного ресурса (например, "/events/123").
      * @param ip        IP-адрес клиента, совершившего запрос.
      * @param timestamp Временная метка, когда был зафиксирован запрос.
+     *                  <p>
+     *                  В асинхронном режиме хит только ставится в очередь, отправка выполняется фоновым потоком.
      */
     public void hit(String app, String uri, String ip, LocalDateTime timestamp) {
         // Формируем DTO-объект с данными о "хите" для отправки в сервис статистики.
@@ -59,6 +191,13 @@ public class StatsClient {
                 timestamp.format(FORMATTER)  // Преобразуем LocalDateTime в строку в формате "yyyy-MM-dd HH:mm:ss"
         );
 
+        if (hitBuffer != null) {
+            if (!hitBuffer.offer(hitDto)) {
+                log.debug("Очередь хитов переполнена, хит отброшен: app={}, uri={}", app, uri);
+            }
+            return;
+        }
+
         // Указываем, что тело запроса будет в формате JSON.
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -69,27 +208,86 @@ public class StatsClient {
         try {
             // Отправляем POST-запрос на эндпоинт "/hit" сервиса статистики.
             // Используем postForEntity — он предназначен специально для POST-запросов.
-            restTemplate.postForEntity("/hit", requestEntity, Void.class);
+            callStatsServer(() -> restTemplate.postForEntity("/hit", requestEntity, Void.class));
 
             // Успешная отправка: логируем отладочную информацию.
             log.debug("Данные о запросе успешно отправлены в сервис статистики: app={}, uri={}, ip={}, timestamp={}",
                     app, uri, ip, timestamp);
 
         } catch (Exception e) {
-            // В случае ошибки (недоступность сервиса, таймаут и т.п.) логируем предупреждение.
-            // Исключение НЕ пробрасывается выше, так как сбор статистики не критичен
-            // для основной бизнес-логики приложения.
-            log.warn("Не удалось отправить данные о запросе в сервис статистики: {}", e.getMessage());
+            // В случае ошибки (недоступность сервиса, таймаут и т.п.) сохраняем хит в журнал, если он включён,
+            // иначе логируем предупреждение. Исключение НЕ пробрасывается выше, так как сбор статистики
+            // не критичен для основной бизнес-логики приложения.
+            if (hitSpool != null && hitSpool.append(List.of(hitDto))) {
+                log.debug("Сервис статистики недоступен, хит сохранён в журнал: {}", e.getMessage());
+            } else {
+                log.warn("Не удалось отправить данные о запросе в сервис статистики: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Отправляет пакет хитов на эндпоинт "/hits". Исключения пробрасываются вызывающему буферу,
+     * чтобы пакет был учтён как неотправленный.
+     *
+     * @param hits Пакет хитов.
+     */
+    private void sendHitBatch(List<EndpointHitDto> hits) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<HitBatchResultDto> response =
+                callStatsServer(() -> restTemplate.postForEntity("/hits", new HttpEntity<>(hits, headers),
+                        HitBatchResultDto.class));
+
+        HitBatchResultDto result = response.getBody();
+        if (result != null && result.getRejected() > 0) {
+            log.warn("Сервис статистики отклонил {} из {} хитов пакета", result.getRejected(), hits.size());
+        } else {
+            log.debug("Пакет из {} хитов отправлен в сервис статистики", hits.size());
         }
     }
 
+    /**
+     * Отправляет пакет, а при ошибке сохраняет его в журнал. Если журнал отключён или переполнен,
+     * исключение пробрасывается буферу, и пакет учитывается как неотправленный.
+     */
+    private void sendOrSpool(List<EndpointHitDto> hits) {
+        try {
+            sendHitBatch(hits);
+        } catch (RuntimeException e) {
+            if (hitSpool != null && hitSpool.append(hits)) {
+                log.debug("Пакет из {} хитов сохранён в журнал: {}", hits.size(), e.getMessage());
+                return;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Журнал неотправленных хитов или {@code null}, если он отключён.
+     */
+    @Nullable
+    HitSpool getHitSpool() {
+        return hitSpool;
+    }
+
+    /**
+     * Буфер асинхронной отправки хитов или {@code null} в синхронном режиме.
+     */
+    @Nullable
+    HitBuffer getHitBuffer() {
+        return hitBuffer;
+    }
+
     /**
      * Получает статистику просмотров за заданный период из внешнего сервиса статистики.
      *
      * @param start  Начало временного диапазона (включительно). Не может быть null.
      * @param end    Конец временного диапазона (включительно). Не может быть null.
      * @param uris   Список URI для фильтрации статистики. Может быть null или пустым — в этом случае
-     *               возвращается статистика по всем URI.
+     *               возвращается статистика по всем URI. Элементы null пропускаются; если кроме них
+     *               в списке ничего нет, возвращается пустой список.
      * @param unique Флаг, указывающий, нужно ли учитывать только уникальные IP-адреса.
      * @return Список объектов {@link ViewStatsDto} с агрегированной статистикой.
      *         Возвращается пустой список в случае ошибки или отсутствия данных.
@@ -100,14 +298,154 @@ public class StatsClient {
             @Nullable List<String> uris,
             boolean unique
     ) {
-        // 1. Формируем параметры запроса
-        Map<String, Object> queryParams = buildQueryParameters(start, end, uris, unique);
+        List<String> filter = uris == null ? null : uris.stream().filter(Objects::nonNull).toList();
+        if (filter != null && filter.isEmpty() && !uris.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Выполняем запрос (или берём ответ из кэша / уже выполняющегося такого же запроса)
+        StatsQueryCache.Key key = statsQueryCache.key(start, end, filter, unique, LocalDateTime.now());
+        try {
+            return statsQueryCache.get(key, () -> queryStats(start, end, filter, unique));
+        } catch (StatsServerUnavailableException e) {
+            log.debug("Статистика не запрошена: {}", e.getMessage());
+            return Collections.emptyList();
+        } catch (RestClientException e) {
+            log.error("Ошибка при обращении к сервису статистики: {}", e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Получает просмотры событий по их идентификаторам за заданный период.
+     * Сервис считает их по числовому идентификатору события, без построения и разбора строк URI.
+     *
+     * @param ids    Идентификаторы событий; элементы null пропускаются.
+     * @param start  Начало временного диапазона (включительно).
+     * @param end    Конец временного диапазона (включительно).
+     * @param unique Учитывать только уникальные IP-адреса.
+     * @return Просмотры по идентификатору события; события без просмотров в карту не попадают.
+     *         Возвращается пустая карта в случае ошибки.
+     */
+    public Map<Long, Long> getEventViews(
+            @NonNull Collection<Long> ids,
+            @NonNull LocalDateTime start,
+            @NonNull LocalDateTime end,
+            boolean unique
+    ) {
+        List<Long> filter = ids.stream().filter(Objects::nonNull).toList();
+        if (filter.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        StatsQueryCache.Key key = statsQueryCache.eventViewsKey(start, end, filter, unique, LocalDateTime.now());
+        try {
+            return statsQueryCache.get(key, () -> queryEventViews(start, end, filter, unique));
+        } catch (StatsServerUnavailableException e) {
+            log.debug("Просмотры событий не запрошены: {}", e.getMessage());
+            return Collections.emptyMap();
+        } catch (RestClientException e) {
+            log.error("Ошибка при обращении к сервису статистики: {}", e.getMessage(), e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Отправляет запрос просмотров событий в теле {@code POST /stats/views}.
+     */
+    private Map<Long, Long> queryEventViews(LocalDateTime start, LocalDateTime end,
+                                            Collection<Long> ids, boolean unique) {
+        EventViewsQueryDto query = new EventViewsQueryDto(start.format(FORMATTER), end.format(FORMATTER),
+                List.copyOf(ids), unique);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
-        // 2. Формируем URL-шаблон с поддержкой динамического количества URI
-        String urlTemplate = buildStatsUrlTemplate(uris);
+        ResponseEntity<EventViewsDto[]> response = callStatsServer(() -> restTemplate.postForEntity(
+                "/stats/views", new HttpEntity<>(query, headers), EventViewsDto[].class));
 
-        // 3. Выполняем запрос и обрабатываем ответ
-        return sendStatsRequest(urlTemplate, queryParams);
+        EventViewsDto[] body = response.getBody();
+        if (body == null) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> views = new HashMap<>(body.length * 2);
+        for (EventViewsDto dto : body) {
+            views.put(dto.getEventId(), dto.getHits());
+        }
+        log.debug("Получены просмотры {} событий из {}", views.size(), ids.size());
+        return Collections.unmodifiableMap(views);
+    }
+
+    /**
+     * Запрашивает статистику у сервиса. Небольшой список URI передаётся в строке запроса {@code GET /stats};
+     * список длиннее {@code postThreshold} — в теле {@code POST /stats/query}, частями по {@code chunkSize},
+     * которые отправляются параллельно. Ответы частей объединяются и сортируются по убыванию просмотров.
+     */
+    private List<ViewStatsDto> queryStats(LocalDateTime start, LocalDateTime end,
+                                          @Nullable List<String> uris, boolean unique) {
+        if (uris == null || uris.size() <= postThreshold) {
+            // 1. Формируем параметры запроса
+            Map<String, Object> queryParams = buildQueryParameters(start, end, uris, unique);
+
+            // 2. Формируем URL-шаблон с поддержкой динамического количества URI
+            String urlTemplate = buildStatsUrlTemplate(uris);
+            if (unique && approximateUnique) {
+                urlTemplate += "&approximate=true";
+            }
+
+            // 3. Выполняем запрос и обрабатываем ответ
+            return fetchStats(urlTemplate, queryParams);
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < uris.size(); from += chunkSize) {
+            chunks.add(uris.subList(from, Math.min(from + chunkSize, uris.size())));
+        }
+        if (chunks.size() == 1) {
+            return postStatsQuery(start, end, chunks.get(0), unique);
+        }
+
+        List<CompletableFuture<List<ViewStatsDto>>> parts = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> postStatsQuery(start, end, chunk, unique),
+                        queryExecutor))
+                .toList();
+        List<ViewStatsDto> merged = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<ViewStatsDto>> part : parts) {
+                merged.addAll(part.join());
+            }
+        } catch (CompletionException e) {
+            parts.forEach(part -> part.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        merged.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        log.debug("Статистика по {} URI получена {} частями", uris.size(), chunks.size());
+        return merged;
+    }
+
+    /**
+     * Отправляет запрос статистики в теле {@code POST /stats/query}.
+     */
+    private List<ViewStatsDto> postStatsQuery(LocalDateTime start, LocalDateTime end,
+                                              List<String> uris, boolean unique) {
+        StatsQueryDto query = new StatsQueryDto(start.format(FORMATTER), end.format(FORMATTER),
+                uris, unique, unique && approximateUnique);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<ViewStatsDto[]> response = callStatsServer(() -> restTemplate.postForEntity(
+                "/stats/query", new HttpEntity<>(query, headers), ViewStatsDto[].class));
+
+        ViewStatsDto[] body = response.getBody();
+        return body != null ? Arrays.asList(body) : Collections.emptyList();
+    }
+
+    /**
+     * Кэш запросов статистики.
+     */
+    StatsQueryCache getStatsQueryCache() {
+        return statsQueryCache;
     }
 
     /**
@@ -166,31 +504,27 @@ public class StatsClient {
 
     /**
      * Выполняет HTTP GET-запрос к сервису статистики и обрабатывает ответ.
-     * В случае ошибки или недопустимого статуса возвращает пустой список.
+     * При недопустимом статусе возвращает пустой список; ошибки обращения пробрасываются,
+     * чтобы не попасть в кэш.
      *
      * @param urlTemplate Шаблон URL с переменными подстановки.
      * @param queryParams Параметры запроса для подстановки в URL.
-     * @return Список статистики или пустой список при ошибке.
+     * @return Список статистики.
      */
-    private List<ViewStatsDto> sendStatsRequest(String urlTemplate, Map<String, Object> queryParams) {
-        try {
-            ResponseEntity<ViewStatsDto[]> response = restTemplate.getForEntity(
-                    urlTemplate,
-                    ViewStatsDto[].class,
-                    queryParams
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                ViewStatsDto[] body = response.getBody();
-                log.debug("Получена статистика: {} записей", body.length);
-                return Arrays.asList(body);
-            } else {
-                log.warn("Сервис статистики вернул пустой или некорректный ответ. Статус: {}",
-                        response.getStatusCode());
-                return Collections.emptyList();
-            }
-        } catch (RestClientException e) {
-            log.error("Ошибка при обращении к сервису статистики: {}", e.getMessage(), e);
+    private List<ViewStatsDto> fetchStats(String urlTemplate, Map<String, Object> queryParams) {
+        ResponseEntity<ViewStatsDto[]> response = callStatsServer(() -> restTemplate.getForEntity(
+                urlTemplate,
+                ViewStatsDto[].class,
+                queryParams
+        ));
+
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            ViewStatsDto[] body = response.getBody();
+            log.debug("Получена статистика: {} записей", body.length);
+            return Arrays.asList(body);
+        } else {
+            log.warn("Сервис статистики вернул пустой или некорректный ответ. Статус: {}",
+                    response.getStatusCode());
             return Collections.emptyList();
         }
     }
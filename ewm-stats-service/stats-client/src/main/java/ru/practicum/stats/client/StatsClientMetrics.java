@@ -0,0 +1,81 @@
+package ru.practicum.stats.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Метрики клиента статистики: выключатель обращений, кэш запросов статистики, журнал неотправленных хитов
+ * и состояние очереди асинхронной отправки хитов.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsClientMetrics implements MeterBinder {
+
+    private final StatsClient statsClient;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        StatsQueryCache cache = statsClient.getStatsQueryCache();
+        FunctionCounter.builder("stats.client.stats.cache.hits", cache, StatsQueryCache::getHits)
+                .description("Запросы статистики, обслуженные из кэша")
+                .register(registry);
+        FunctionCounter.builder("stats.client.stats.cache.misses", cache, StatsQueryCache::getMisses)
+                .description("Запросы статистики, отправленные в сервис статистики")
+                .register(registry);
+        FunctionCounter.builder("stats.client.stats.cache.coalesced", cache, StatsQueryCache::getCoalesced)
+                .description("Запросы статистики, дождавшиеся такого же выполняющегося запроса")
+                .register(registry);
+        Gauge.builder("stats.client.stats.cache.size", cache, StatsQueryCache::size)
+                .description("Ответы статистики в кэше")
+                .register(registry);
+
+        CircuitBreaker breaker = statsClient.getCircuitBreaker();
+        Gauge.builder("stats.client.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Состояние выключателя обращений к сервису статистики: 0 — замкнут, 1 — разомкнут, 2 — пробный запрос")
+                .register(registry);
+        FunctionCounter.builder("stats.client.circuit.rejected", breaker, CircuitBreaker::getRejected)
+                .description("Обращения, отклонённые разомкнутым выключателем")
+                .register(registry);
+
+        HitSpool spool = statsClient.getHitSpool();
+        if (spool != null) {
+            FunctionCounter.builder("stats.client.hits.spooled", spool, HitSpool::getSpooled)
+                    .description("Хиты, сохранённые в журнал из-за недоступности сервиса статистики")
+                    .register(registry);
+            FunctionCounter.builder("stats.client.hits.replayed", spool, HitSpool::getReplayed)
+                    .description("Хиты, отправленные из журнала")
+                    .register(registry);
+            FunctionCounter.builder("stats.client.hits.spool.dropped", spool, HitSpool::getDropped)
+                    .description("Хиты, потерянные из-за переполнения или ошибки записи журнала")
+                    .register(registry);
+            Gauge.builder("stats.client.hits.spool.bytes", spool, HitSpool::pendingSize)
+                    .description("Объём неотправленных записей журнала")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        HitBuffer buffer = statsClient.getHitBuffer();
+        if (buffer == null) {
+            return;
+        }
+        FunctionCounter.builder("stats.client.hits.enqueued", buffer, HitBuffer::getEnqueued)
+                .description("Хиты, поставленные в очередь")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.flushed", buffer, HitBuffer::getFlushed)
+                .description("Хиты, доставленные в сервис статистики")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.dropped", buffer, HitBuffer::getDropped)
+                .description("Хиты, отброшенные из-за переполнения очереди")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.failed", buffer, HitBuffer::getFailed)
+                .description("Хиты из пакетов, которые не удалось отправить")
+                .register(registry);
+        Gauge.builder("stats.client.hits.queue.size", buffer, HitBuffer::size)
+                .description("Хиты, ожидающие отправки")
+                .register(registry);
+    }
+}
@@ -0,0 +1,222 @@
+package ru.practicum.stats.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки клиента сервиса статистики (префикс {@code stats-server}).
+ */
+@Component
+@ConfigurationProperties(prefix = "stats-server")
+@Getter
+@Setter
+public class StatsClientProperties {
+
+    /**
+     * Базовый URL сервиса статистики.
+     */
+    private String url;
+
+    /**
+     * Запрашивать уникальные просмотры в приближённом режиме ({@code approximate=true}, скетчи HyperLogLog).
+     */
+    private boolean approximateUnique;
+
+    /**
+     * Таймаут установки соединения с сервисом статистики.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Таймаут ожидания ответа сервиса статистики.
+     */
+    private Duration readTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Настройки пула HTTP-соединений.
+     */
+    private final Pool pool = new Pool();
+
+    /**
+     * Настройки автоматического выключателя обращений.
+     */
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Настройки запросов статистики с большим числом URI.
+     */
+    private final Query query = new Query();
+
+    /**
+     * Настройки отправки хитов.
+     */
+    private final Hit hit = new Hit();
+
+    /**
+     * Настройки кэша запросов статистики.
+     */
+    private final StatsCache statsCache = new StatsCache();
+
+    public static StatsClientProperties forUrl(String url) {
+        StatsClientProperties properties = new StatsClientProperties();
+        properties.setUrl(url);
+        return properties;
+    }
+
+    @Getter
+    @Setter
+    public static class Hit {
+
+        /**
+         * SYNC — хит отправляется в потоке запроса, ASYNC — через очередь и фоновую отправку пакетами.
+         */
+        private HitMode mode = HitMode.SYNC;
+
+        /**
+         * Максимальное число хитов, ожидающих отправки.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Размер пакета, при накоплении которого отправка запускается досрочно.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Период принудительной отправки неполного пакета.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * Поведение при заполненной очереди.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        /**
+         * Сколько ждать свободного места при политике BLOCK, прежде чем отбросить хит.
+         */
+        private Duration blockTimeout = Duration.ofMillis(500);
+
+        /**
+         * Локальный журнал неотправленных хитов.
+         */
+        private final Spool spool = new Spool();
+    }
+
+    @Getter
+    @Setter
+    public static class Spool {
+
+        /**
+         * Каталог журнала. Если не задан, журнал отключён и неотправленные хиты теряются.
+         */
+        private String dir;
+
+        /**
+         * Размер сегмента, после которого запись продолжается в новом файле.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(4);
+
+        /**
+         * Максимальный объём неотправленных записей; при превышении удаляются самые старые сегменты.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Период попыток отправить накопленное в журнале.
+         */
+        private Duration replayInterval = Duration.ofSeconds(5);
+
+        /**
+         * Сбрасывать каждую запись на диск (надёжнее при сбое питания, но медленнее).
+         */
+        private boolean fsync;
+    }
+
+    @Getter
+    @Setter
+    public static class StatsCache {
+
+        /**
+         * Сколько хранить ответ сервиса статистики. Нулевое значение отключает кэш,
+         * но одновременные одинаковые запросы по-прежнему объединяются.
+         */
+        private Duration ttl = Duration.ofSeconds(5);
+
+        /**
+         * Максимальное число хранимых ответов.
+         */
+        private int maxSize = 1_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /**
+         * Максимальное число соединений в пуле.
+         */
+        private int maxTotal = 50;
+
+        /**
+         * Максимальное число соединений с одним хостом.
+         */
+        private int maxPerRoute = 20;
+
+        /**
+         * Сколько ждать свободного соединения из пула.
+         */
+        private Duration acquireTimeout = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /**
+         * Число ошибок подряд, после которого обращения приостанавливаются.
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * Сколько обращения отклоняются сразу, прежде чем будет сделан пробный запрос.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Query {
+
+        /**
+         * Число URI, начиная с которого запрос отправляется в теле {@code POST /stats/query}, а не в строке URL.
+         */
+        private int postThreshold = 50;
+
+        /**
+         * Максимальное число URI в одном запросе; больший список делится на части.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Сколько частей большого запроса отправляется одновременно.
+         */
+        private int parallelism = 4;
+    }
+
+    public enum HitMode {
+        SYNC,
+        ASYNC
+    }
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        BLOCK
+    }
+}
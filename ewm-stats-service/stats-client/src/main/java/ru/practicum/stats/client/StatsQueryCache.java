@@ -0,0 +1,178 @@
+package ru.practicum.stats.client;
+
+import lombok.extern.slf4j.Slf4j;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш запросов статистики с объединением одновременных одинаковых запросов.
+ * <p>
+ * Пока запрос выполняется, остальные потоки с тем же ключом ждут его результат, а не отправляют свой.
+ * Успешный ответ хранится {@code ttl}; ошибки не кэшируются. Запросы, у которых конец периода отличается
+ * от текущего момента меньше чем на {@code ttl} («до сейчас»), считаются одинаковыми независимо от точного
+ * {@code end}: иначе каждая секунда давала бы новый ключ. Конец дальше в прошлом или в будущем входит в ключ
+ * как есть. Число хранимых ответов ограничено {@code maxSize}.
+ */
+@Slf4j
+class StatsQueryCache {
+
+    /**
+     * Ключ запроса. {@code end == null} означает период «до текущего момента».
+     * {@code filter} — список URI или, для просмотров событий ({@code byEventId}), идентификаторов событий.
+     */
+    record Key(LocalDateTime start, LocalDateTime end, List<?> filter, boolean unique, boolean byEventId) {
+    }
+
+    private record Entry(CompletableFuture<Object> result, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    StatsQueryCache(StatsClientProperties.StatsCache settings) {
+        this(settings, System::nanoTime);
+    }
+
+    StatsQueryCache(StatsClientProperties.StatsCache settings, LongSupplier nanoClock) {
+        this.ttlNanos = settings.getTtl().toNanos();
+        this.maxSize = settings.getMaxSize();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Строит ключ запроса; конец периода в пределах {@code ttl} от {@code now} заменяется на «до сейчас».
+     * Список URI не должен содержать {@code null}.
+     */
+    Key key(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, LocalDateTime now) {
+        return new Key(start, liveEnd(end, now), uris == null ? List.of() : List.copyOf(uris), unique, false);
+    }
+
+    /**
+     * Строит ключ запроса просмотров событий; порядок и повторы идентификаторов на ключ не влияют.
+     */
+    Key eventViewsKey(LocalDateTime start, LocalDateTime end, Collection<Long> ids, boolean unique,
+                      LocalDateTime now) {
+        return new Key(start, liveEnd(end, now), List.copyOf(new TreeSet<>(ids)), unique, true);
+    }
+
+    private LocalDateTime liveEnd(LocalDateTime end, LocalDateTime now) {
+        Duration ttl = Duration.ofNanos(ttlNanos);
+        return end.isAfter(now.minus(ttl)) && end.isBefore(now.plus(ttl)) ? null : end;
+    }
+
+    /**
+     * Возвращает ответ из кэша, результат уже выполняющегося запроса с тем же ключом или выполняет
+     * {@code loader} в текущем потоке. Исключение загрузчика получают все ожидавшие его потоки.
+     */
+    <T> T get(Key key, Supplier<T> loader) {
+        long now = nanoClock.getAsLong();
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.isExpired(now)) {
+            if (existing.result().isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return join(existing.result());
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        Entry pending = new Entry(own, Long.MAX_VALUE);
+        Entry winner = entries.compute(key, (k, current) ->
+                current == null || current.isExpired(now) ? pending : current);
+        if (winner != pending) {
+            coalesced.increment();
+            return join(winner.result());
+        }
+
+        misses.increment();
+        try {
+            T result = loader.get();
+            store(key, pending);
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, pending);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Заменяет ожидающую запись сохранённой на {@code ttl} или убирает её, если кэш отключён или заполнен.
+     * Вызывается до завершения future, чтобы завершённая запись всегда имела настоящий срок жизни.
+     */
+    private void store(Key key, Entry pending) {
+        if (ttlNanos <= 0) {
+            entries.remove(key, pending);
+            return;
+        }
+        if (entries.size() > maxSize) {
+            evictExpired();
+        }
+        if (entries.size() > maxSize) {
+            entries.remove(key, pending);
+            log.debug("Кэш статистики заполнен ({} записей), ответ не сохранён", maxSize);
+            return;
+        }
+        long expiresAt = nanoClock.getAsLong() + ttlNanos;
+        entries.replace(key, pending, new Entry(pending.result(), expiresAt));
+    }
+
+    private void evictExpired() {
+        long now = nanoClock.getAsLong();
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            if (e.getValue().isExpired(now)) {
+                entries.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T join(CompletableFuture<Object> future) {
+        try {
+            return (T) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.stats.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Обращение к сервису статистики отклонено разомкнутым {@link CircuitBreaker} без отправки запроса.
+ */
+public class StatsServerUnavailableException extends RestClientException {
+
+    public StatsServerUnavailableException(String message) {
+        super(message);
+    }
+}
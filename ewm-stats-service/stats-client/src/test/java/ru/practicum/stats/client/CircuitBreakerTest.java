@@ -0,0 +1,73 @@
+package ru.practicum.stats.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Модульные тесты для CircuitBreaker: размыкание, пробный запрос и восстановление.
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(settings(3, Duration.ofSeconds(10)), clock::get);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onSuccess();
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    void afterOpenDuration_allowsSingleTrial_successCloses() {
+        fail(3);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrial_reopens() {
+        fail(3);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    private static StatsClientProperties.CircuitBreaker settings(int threshold, Duration openDuration) {
+        StatsClientProperties.CircuitBreaker settings = new StatsClientProperties.CircuitBreaker();
+        settings.setFailureThreshold(threshold);
+        settings.setOpenDuration(openDuration);
+        return settings;
+    }
+}
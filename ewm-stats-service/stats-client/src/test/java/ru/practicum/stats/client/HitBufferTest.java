@@ -0,0 +1,119 @@
+package ru.practicum.stats.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.client.StatsClientProperties.OverflowPolicy;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Модульные тесты для HitBuffer: политики переполнения и пакетная отправка.
+ */
+class HitBufferTest {
+
+    private final List<List<EndpointHitDto>> sentBatches = new CopyOnWriteArrayList<>();
+    private HitBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void offer_dropOldest_keepsNewestHits() {
+        buffer = new HitBuffer(settings(3, 100, OverflowPolicy.DROP_OLDEST), sentBatches::add);
+
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(buffer.offer(hit(i)));
+        }
+        buffer.flush();
+
+        assertEquals(2, buffer.getDropped());
+        assertEquals(List.of("/events/3", "/events/4", "/events/5"), sentUris());
+    }
+
+    @Test
+    void offer_dropNewest_keepsOldestHits() {
+        buffer = new HitBuffer(settings(3, 100, OverflowPolicy.DROP_NEWEST), sentBatches::add);
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.offer(hit(i));
+        }
+        buffer.flush();
+
+        assertEquals(2, buffer.getDropped());
+        assertEquals(List.of("/events/1", "/events/2", "/events/3"), sentUris());
+    }
+
+    @Test
+    void offer_block_dropsAfterTimeout() {
+        StatsClientProperties.Hit settings = settings(1, 100, OverflowPolicy.BLOCK);
+        settings.setBlockTimeout(Duration.ofMillis(10));
+        buffer = new HitBuffer(settings, sentBatches::add);
+
+        assertTrue(buffer.offer(hit(1)));
+        assertFalse(buffer.offer(hit(2)));
+        assertEquals(1, buffer.getDropped());
+    }
+
+    @Test
+    void close_sendsRemainingHitsInBatchesOfConfiguredSize() {
+        buffer = new HitBuffer(settings(100, 2, OverflowPolicy.DROP_OLDEST), sentBatches::add);
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.offer(hit(i));
+        }
+        buffer.close();
+
+        assertEquals(5, buffer.getEnqueued());
+        assertEquals(5, buffer.getFlushed());
+        assertEquals(0, buffer.size());
+        assertEquals(List.of("/events/1", "/events/2", "/events/3", "/events/4", "/events/5"), sentUris());
+        assertTrue(sentBatches.stream().allMatch(batch -> batch.size() <= 2));
+    }
+
+    @Test
+    void flush_senderFails_countsFailedHits() {
+        Consumer<List<EndpointHitDto>> failing = batch -> {
+            throw new IllegalStateException("stats-server недоступен");
+        };
+        buffer = new HitBuffer(settings(100, 100, OverflowPolicy.DROP_OLDEST), failing);
+
+        buffer.offer(hit(1));
+        buffer.offer(hit(2));
+        buffer.flush();
+
+        assertEquals(0, buffer.getFlushed());
+        assertEquals(2, buffer.getFailed());
+        assertEquals(0, buffer.size());
+    }
+
+    private StatsClientProperties.Hit settings(int capacity, int batchSize, OverflowPolicy policy) {
+        StatsClientProperties.Hit settings = new StatsClientProperties.Hit();
+        settings.setQueueCapacity(capacity);
+        settings.setBatchSize(batchSize);
+        settings.setOverflowPolicy(policy);
+        // Интервал заведомо больше времени теста, чтобы отправка по таймеру не вмешивалась
+        settings.setFlushInterval(Duration.ofMinutes(1));
+        return settings;
+    }
+
+    private EndpointHitDto hit(int eventId) {
+        return new EndpointHitDto(null, "ewm-main-service", "/events/" + eventId, "10.0.0.1", "2025-01-01 12:00:00");
+    }
+
+    private List<String> sentUris() {
+        return sentBatches.stream()
+                .flatMap(List::stream)
+                .map(EndpointHitDto::getUri)
+                .toList();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.stats.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Модульные тесты для HitSpool: порядок отправки, восстановление после перезапуска и ограничения размера.
+ */
+class HitSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<List<EndpointHitDto>> sentBatches = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean serverDown = new AtomicBoolean();
+    private HitSpool spool;
+
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void replay_sendsBatchesInOrderAndEmptiesSpool() {
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+
+        assertTrue(spool.append(List.of(hit(1), hit(2))));
+        assertTrue(spool.append(List.of(hit(3))));
+
+        assertEquals(3, spool.replay());
+        assertEquals(List.of("/events/1", "/events/2", "/events/3"), sentUris());
+        assertEquals(0, spool.pendingSize());
+        assertEquals(0, spool.replay());
+    }
+
+    @Test
+    void replay_serverDown_keepsBatchUntilNextAttempt() {
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+        spool.append(List.of(hit(1)));
+
+        serverDown.set(true);
+        assertEquals(0, spool.replay());
+        assertTrue(spool.pendingSize() > 0);
+
+        serverDown.set(false);
+        assertEquals(1, spool.replay());
+        assertEquals(List.of("/events/1"), sentUris());
+    }
+
+    @Test
+    void reopen_replaysOnlyUnsentBatches() {
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+        spool.append(List.of(hit(1)));
+        spool.replay();
+        spool.append(List.of(hit(2)));
+        spool.close();
+
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+        spool.replay();
+
+        assertEquals(List.of("/events/1", "/events/2"), sentUris());
+    }
+
+    @Test
+    void reopen_tornTail_isTruncatedAndSpoolStaysUsable() throws IOException {
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+        spool.append(List.of(hit(1)));
+        spool.close();
+
+        // Имитируем запись, оборванную при аварийной остановке: заголовок обещает больше данных, чем есть
+        try (Stream<Path> files = Files.list(dir)) {
+            Path segment = files.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 1, 0, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        }
+
+        spool = open(settings(DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)));
+        spool.append(List.of(hit(2)));
+        spool.replay();
+
+        assertEquals(List.of("/events/1", "/events/2"), sentUris());
+    }
+
+    @Test
+    void append_overMaxSize_dropsOldestSegments() throws IOException {
+        spool = open(settings(DataSize.ofBytes(300), DataSize.ofBytes(1000)));
+
+        for (int i = 1; i <= 20; i++) {
+            spool.append(List.of(hit(i)));
+        }
+
+        assertTrue(spool.pendingSize() <= 1000);
+        assertTrue(spool.getDropped() > 0);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.filter(p -> p.toString().endsWith(".seg")).count() > 1);
+        }
+
+        spool.replay();
+        List<String> uris = sentUris();
+        assertEquals("/events/20", uris.get(uris.size() - 1));
+        assertEquals(20 - spool.getDropped(), uris.size());
+    }
+
+    private HitSpool open(StatsClientProperties.Spool settings) {
+        return new HitSpool(settings, new ObjectMapper(), batch -> {
+            if (serverDown.get()) {
+                throw new IllegalStateException("stats-server is down");
+            }
+            sentBatches.add(batch);
+        });
+    }
+
+    private StatsClientProperties.Spool settings(DataSize segmentSize, DataSize maxSize) {
+        StatsClientProperties.Spool settings = new StatsClientProperties.Spool();
+        settings.setDir(dir.toString());
+        settings.setSegmentSize(segmentSize);
+        settings.setMaxSize(maxSize);
+        settings.setReplayInterval(Duration.ofHours(1));
+        return settings;
+    }
+
+    private List<String> sentUris() {
+        return sentBatches.stream().flatMap(List::stream).map(EndpointHitDto::getUri).toList();
+    }
+
+    private static EndpointHitDto hit(int i) {
+        return new EndpointHitDto(null, "ewm-main-service", "/events/" + i, "10.0.0." + i, "2025-11-23 10:00:00");
+    }
+}
@@ -11,18 +11,25 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.EventViewsQueryDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
+import ru.practicum.stats.dto.StatsQueryDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -66,7 +73,7 @@ class StatsClientTest {
     void setUp() {
         // Имитируем конфигурацию RestTemplateBuilder
         when(restTemplateBuilder.uriTemplateHandler(any(DefaultUriBuilderFactory.class))).thenReturn(restTemplateBuilder);
-        when(restTemplateBuilder.requestFactory(any(Class.class))).thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.requestFactory(any(Supplier.class))).thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.build()).thenReturn(restTemplate);
 
         // Создаем тестируемый объект, используя мок-зависимости
@@ -128,6 +135,26 @@ class StatsClientTest {
         // Дополнительно можно проверить логирование, но в unit-тестах это сложнее
     }
 
+    @Test
+    void hit_AsyncMode_SendsBatchToHitsEndpoint() {
+        StatsClientProperties properties = StatsClientProperties.forUrl(SERVER_URL);
+        properties.getHit().setMode(StatsClientProperties.HitMode.ASYNC);
+        StatsClient asyncClient = new StatsClient(properties, restTemplateBuilder);
+        when(restTemplate.postForEntity(eq("/hits"), any(HttpEntity.class), eq(HitBatchResultDto.class)))
+                .thenReturn(new ResponseEntity<>(new HitBatchResultDto(2, 0, List.of()), HttpStatus.CREATED));
+
+        asyncClient.hit("ewm-main-service", "/events/1", "10.0.0.1", LocalDateTime.now());
+        asyncClient.hit("ewm-main-service", "/events/2", "10.0.0.2", LocalDateTime.now());
+
+        // В асинхронном режиме одиночный эндпоинт не вызывается
+        verify(restTemplate, never()).postForEntity(eq("/hit"), any(), any());
+
+        // При остановке клиента накопленные хиты уходят одним пакетом
+        asyncClient.shutdown();
+        verify(restTemplate).postForEntity(eq("/hits"), any(HttpEntity.class), eq(HitBatchResultDto.class));
+        assertEquals(2, asyncClient.getHitBuffer().getFlushed());
+    }
+
     // --- Тесты для метода getStats ---
 
     @Test
@@ -212,6 +239,33 @@ class StatsClientTest {
         assertEquals(unique, params.get("unique"));
     }
 
+    @Test
+    void getStats_NullUrisAreSkipped() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 31, 23, 59, 59);
+        doReturn(new ResponseEntity<>(new ViewStatsDto[0], HttpStatus.OK))
+                .when(restTemplate).getForEntity(
+                        urlTemplateCaptor.capture(),
+                        eq(ViewStatsDto[].class),
+                        uriVariablesCaptor.capture()
+                );
+
+        statsClient.getStats(start, end, Arrays.asList(null, "/events/1", null), false);
+
+        assertEquals("/stats?start={start}&end={end}&unique={unique}&uris={uris0}", urlTemplateCaptor.getValue());
+        assertEquals("/events/1", uriVariablesCaptor.getValue().get("uris0"));
+    }
+
+    @Test
+    void getStats_OnlyNullUris_ReturnsEmptyWithoutRequest() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+
+        List<ViewStatsDto> result = statsClient.getStats(start, start.plusDays(1), Collections.singletonList(null), false);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void getStats_ServerReturnsEmptyBody() {
         // Подготовка данных
@@ -270,4 +324,131 @@ class StatsClientTest {
         // Проверка: должен вернуться пустой список
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getStats_RepeatedLiveQuery_servedFromCache() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        ViewStatsDto dto = new ViewStatsDto("app1", "/events/1", 3L);
+
+        doReturn(new ResponseEntity<>(new ViewStatsDto[]{dto}, HttpStatus.OK))
+                .when(restTemplate).getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap());
+
+        // Конец периода «сейчас» у запросов отличается, но оба попадают в один ключ
+        List<ViewStatsDto> first = statsClient.getStats(start, LocalDateTime.now(), List.of("/events/1"), true);
+        List<ViewStatsDto> second = statsClient.getStats(start, LocalDateTime.now().plusSeconds(1),
+                List.of("/events/1"), true);
+
+        assertEquals(List.of(dto), first);
+        assertEquals(first, second);
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap());
+    }
+
+    @Test
+    void getStats_FailureIsNotCached() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        ViewStatsDto dto = new ViewStatsDto("app1", "/events/1", 3L);
+
+        when(restTemplate.getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap()))
+                .thenThrow(new RestClientException("Server timeout"))
+                .thenReturn(new ResponseEntity<>(new ViewStatsDto[]{dto}, HttpStatus.OK));
+
+        assertTrue(statsClient.getStats(start, LocalDateTime.now(), null, false).isEmpty());
+        assertEquals(List.of(dto), statsClient.getStats(start, LocalDateTime.now(), null, false));
+    }
+
+    @Test
+    void getStats_ServerTimesOut_circuitOpensAndSkipsRequests() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        when(restTemplate.getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // Порог по умолчанию — 5 ошибок подряд; разные start, чтобы запросы не объединялись кэшем
+        for (int i = 0; i < 8; i++) {
+            assertTrue(statsClient.getStats(start.minusMinutes(i), LocalDateTime.now(), null, false).isEmpty());
+        }
+
+        verify(restTemplate, times(5)).getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap());
+        assertEquals(CircuitBreaker.State.OPEN, statsClient.getCircuitBreaker().getState());
+        assertEquals(3, statsClient.getCircuitBreaker().getRejected());
+    }
+
+    @Test
+    void getStats_ManyUris_postsInParallelChunksAndMergesResults() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 31, 0, 0, 0);
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            uris.add("/events/" + i);
+        }
+
+        when(restTemplate.postForEntity(eq("/stats/query"), any(HttpEntity.class), eq(ViewStatsDto[].class)))
+                .thenAnswer(invocation -> {
+                    HttpEntity<StatsQueryDto> entity = invocation.getArgument(1);
+                    List<String> chunk = entity.getBody().getUris();
+                    // По одному URI из части с числом просмотров, равным номеру события
+                    String uri = chunk.get(0);
+                    return new ResponseEntity<>(new ViewStatsDto[]{
+                            new ViewStatsDto("app", uri, Long.parseLong(uri.substring("/events/".length())))
+                    }, HttpStatus.OK);
+                });
+
+        List<ViewStatsDto> result = statsClient.getStats(start, end, uris, true);
+
+        // 1200 URI при размере части 500 — три запроса, URL с параметрами uris не строится
+        verify(restTemplate, times(3)).postForEntity(eq("/stats/query"), any(HttpEntity.class), eq(ViewStatsDto[].class));
+        verify(restTemplate, never()).getForEntity(anyString(), eq(ViewStatsDto[].class), anyMap());
+        assertEquals(List.of("/events/1000", "/events/500", "/events/0"),
+                result.stream().map(ViewStatsDto::getUri).toList());
+    }
+
+    @Test
+    void getEventViews_PostsIdsAndReturnsMapByEventId() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 31, 0, 0, 0);
+        when(restTemplate.postForEntity(eq("/stats/views"), any(HttpEntity.class), eq(EventViewsDto[].class)))
+                .thenReturn(new ResponseEntity<>(new EventViewsDto[]{
+                        new EventViewsDto(1L, 10L),
+                        new EventViewsDto(3L, 2L)
+                }, HttpStatus.OK));
+
+        Map<Long, Long> views = statsClient.getEventViews(List.of(3L, 1L, 2L), start, end, true);
+        // Тот же набор идентификаторов в другом порядке берётся из кэша
+        Map<Long, Long> cached = statsClient.getEventViews(List.of(1L, 2L, 3L), start, end, true);
+
+        assertEquals(Map.of(1L, 10L, 3L, 2L), views);
+        assertEquals(views, cached);
+
+        ArgumentCaptor<HttpEntity<EventViewsQueryDto>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(1)).postForEntity(eq("/stats/views"), captor.capture(), eq(EventViewsDto[].class));
+        EventViewsQueryDto query = captor.getValue().getBody();
+        assertEquals("2023-01-01 00:00:00", query.getStart());
+        assertEquals(List.of(3L, 1L, 2L), query.getIds());
+        assertTrue(query.isUnique());
+    }
+
+    @Test
+    void getEventViews_NullIdsAreSkipped() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+        when(restTemplate.postForEntity(eq("/stats/views"), any(HttpEntity.class), eq(EventViewsDto[].class)))
+                .thenReturn(new ResponseEntity<>(new EventViewsDto[0], HttpStatus.OK));
+
+        statsClient.getEventViews(Arrays.asList(2L, null, 1L), start, start.plusDays(1), false);
+
+        ArgumentCaptor<HttpEntity<EventViewsQueryDto>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(eq("/stats/views"), captor.capture(), eq(EventViewsDto[].class));
+        assertEquals(List.of(2L, 1L), captor.getValue().getBody().getIds());
+        assertTrue(statsClient.getEventViews(Collections.singletonList(null), start, start.plusDays(1), false)
+                .isEmpty());
+    }
+
+    @Test
+    void getEventViews_ServerError_ReturnsEmptyMap() {
+        when(restTemplate.postForEntity(eq("/stats/views"), any(HttpEntity.class), eq(EventViewsDto[].class)))
+                .thenThrow(new RestClientException("Connection refused"));
+
+        Map<Long, Long> views = statsClient.getEventViews(List.of(1L), LocalDateTime.now().minusDays(1),
+                LocalDateTime.now(), true);
+
+        assertTrue(views.isEmpty());
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.stats.client;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Модульные тесты для StatsQueryCache: объединение запросов, срок жизни и ограничение размера.
+ */
+class StatsQueryCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 23, 12, 0, 0);
+    private static final List<ViewStatsDto> RESULT = List.of(new ViewStatsDto("app", "/events/1", 5L));
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_concurrentIdenticalQueries_loadOnce() throws Exception {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 100), clock::get);
+        StatsQueryCache.Key key = cache.key(NOW.minusDays(1), NOW, List.of("/events/1"), true, NOW);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<List<ViewStatsDto>> leader = executor.submit(() -> cache.get(key, () -> {
+                loaderStarted.countDown();
+                await(release);
+                loads.incrementAndGet();
+                return RESULT;
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            List<Future<List<ViewStatsDto>>> followers = new CopyOnWriteArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                followers.add(executor.submit(() -> cache.get(key, this::load)));
+            }
+            while (cache.getCoalesced() < threads - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(RESULT, leader.get(5, TimeUnit.SECONDS));
+            for (Future<List<ViewStatsDto>> follower : followers) {
+                assertEquals(RESULT, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void get_withinTtl_servedFromCache_thenExpires() {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 100), clock::get);
+        StatsQueryCache.Key key = cache.key(NOW.minusDays(1), NOW, null, false, NOW);
+
+        cache.get(key, this::load);
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        cache.get(key, this::load);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_failure_isRethrownAndNotCached() {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 100), clock::get);
+        StatsQueryCache.Key key = cache.key(NOW.minusDays(1), NOW, null, false, NOW);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(key, () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals(0, cache.size());
+
+        assertEquals(RESULT, cache.get(key, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_fullCache_doesNotGrowBeyondMaxSize() {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 2), clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            cache.get(cache.key(NOW.minusDays(i + 1), NOW, null, false, NOW), this::load);
+        }
+
+        assertTrue(cache.size() <= 2);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void key_endNearNow_isLive_pastEndIsExact() {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 100), clock::get);
+        LocalDateTime start = NOW.minusDays(1);
+
+        assertEquals(cache.key(start, NOW.minusSeconds(2), null, true, NOW),
+                cache.key(start, NOW, null, true, NOW));
+        assertNotEquals(cache.key(start, NOW.minusHours(1), null, true, NOW),
+                cache.key(start, NOW, null, true, NOW));
+    }
+
+    @Test
+    void key_onlyEndsWithinTtlOfNowAreLive() {
+        StatsQueryCache cache = new StatsQueryCache(settings(Duration.ofSeconds(5), 100), clock::get);
+        LocalDateTime start = NOW.minusDays(1);
+        StatsQueryCache.Key live = cache.key(start, NOW, null, true, NOW);
+
+        assertEquals(live, cache.key(start, NOW.plusSeconds(2), null, true, NOW));
+        assertNotEquals(live, cache.key(start, NOW.plusSeconds(5), null, true, NOW));
+        assertNotEquals(live, cache.key(start, NOW.plusYears(1), null, true, NOW));
+        assertNotEquals(cache.key(start, NOW.plusDays(1), null, true, NOW),
+                cache.key(start, NOW.plusDays(2), null, true, NOW));
+    }
+
+    private List<ViewStatsDto> load() {
+        loads.incrementAndGet();
+        return RESULT;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static StatsClientProperties.StatsCache settings(Duration ttl, int maxSize) {
+        StatsClientProperties.StatsCache settings = new StatsClientProperties.StatsCache();
+        settings.setTtl(ttl);
+        settings.setMaxSize(maxSize);
+        return settings;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventViewsDto {
+    private Long eventId;
+    private Long hits;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Запрос просмотров событий по их идентификаторам ({@code POST /stats/views}).
+ * Сервер считает просмотры по числовому идентификатору ресурса, а не по строке URI.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventViewsQueryDto {
+    private String start;
+    private String end;
+    private List<Long> ids;
+    private boolean unique;
+}
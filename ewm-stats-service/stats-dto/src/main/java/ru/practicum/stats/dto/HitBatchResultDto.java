@@ -0,0 +1,21 @@
+package ru.practicum.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат пакетного сохранения хитов.
+ * Индексы отклонённых элементов соответствуют позициям во входном массиве,
+ * чтобы клиент мог повторно отправить только их.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HitBatchResultDto {
+    private int accepted;
+    private int rejected;
+    private List<Integer> rejectedIndexes;
+}
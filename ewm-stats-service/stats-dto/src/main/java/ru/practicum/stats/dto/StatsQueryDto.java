@@ -0,0 +1,22 @@
+package ru.practicum.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Запрос статистики в теле {@code POST /stats/query}: те же параметры, что у {@code GET /stats},
+ * но список URI не ограничен длиной строки запроса.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsQueryDto {
+    private String start;
+    private String end;
+    private List<String> uris;
+    private boolean unique;
+    private boolean approximate;
+}
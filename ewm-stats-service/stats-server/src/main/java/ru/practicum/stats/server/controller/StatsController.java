@@ -2,10 +2,16 @@ package ru.practicum.stats.server.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.EventViewsQueryDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
+import ru.practicum.stats.dto.StatsQueryDto;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.exception.ValidationException;
 import ru.practicum.stats.server.service.StatsService;
 
 import java.util.List;
@@ -17,6 +23,9 @@ public class StatsController {
 
     private final StatsService statsService;
 
+    @Value("${stats.hits.max-batch-size:10000}")
+    private int maxBatchSize;
+
     /**
      * Принимает данные о запросе («хите») и сохраняет их в хранилище.
      */
@@ -33,23 +42,85 @@ public class StatsController {
         log.debug("Данные о посещении успешно сохранены");
     }
 
+    /**
+     * Принимает пакет хитов и сохраняет все корректные записи в одной транзакции.
+     * В ответе возвращаются количество принятых/отклонённых записей и индексы отклонённых.
+     */
+    @PostMapping("/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchResultDto hits(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        log.debug("Получен пакет данных о посещениях: {} записей", endpointHitDtos.size());
+
+        if (endpointHitDtos.size() > maxBatchSize) {
+            throw new ValidationException("Размер пакета превышает допустимый: " + maxBatchSize);
+        }
+
+        HitBatchResultDto result = statsService.saveHits(endpointHitDtos);
+
+        log.debug("Пакет обработан: принято {}, отклонено {}", result.getAccepted(), result.getRejected());
+        return result;
+    }
+
     /**
      * Возвращает агрегированную статистику по просмотрам за указанный период.
+     * При {@code approximate=true} уникальные просмотры считаются приближённо по скетчам HyperLogLog;
+     * на неуникальные просмотры флаг не влияет. Если период начинается раньше срока хранения сырых хитов
+     * ({@code stats.hits.retention-months}), уникальные просмотры считаются по скетчам и без этого флага.
      */
     @GetMapping("/stats")
     public List<ViewStatsDto> getStats(
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(required = false) List<String> uris,
-            @RequestParam(defaultValue = "false") boolean unique) {
+            @RequestParam(defaultValue = "false") boolean unique,
+            @RequestParam(defaultValue = "false") boolean approximate) {
 
-        log.debug("Получен запрос на получение статистики: start={}, end={}, uris={}, unique={}",
-                start, end, uris, unique);
+        log.debug("Получен запрос на получение статистики: start={}, end={}, uris={}, unique={}, approximate={}",
+                start, end, uris, unique, approximate);
 
-        List<ViewStatsDto> stats = statsService.getStats(start, end, uris, unique);
+        List<ViewStatsDto> stats = unique && approximate
+                ? statsService.getApproximateUniqueStats(start, end, uris)
+                : statsService.getStats(start, end, uris, unique);
 
         log.debug("Статистика успешно получена. Количество записей: {}", stats.size());
 
         return stats;
     }
-}
\ No newline at end of file
+
+    /**
+     * То же, что {@code GET /stats}, но параметры передаются в теле запроса.
+     * Используется клиентом для больших списков URI, которые не помещаются в строку URL.
+     */
+    @PostMapping("/stats/query")
+    public List<ViewStatsDto> queryStats(@RequestBody StatsQueryDto query) {
+        log.debug("Получен запрос статистики в теле: start={}, end={}, uris={}, unique={}, approximate={}",
+                query.getStart(), query.getEnd(),
+                query.getUris() == null ? 0 : query.getUris().size(), query.isUnique(), query.isApproximate());
+
+        if (query.getStart() == null || query.getEnd() == null) {
+            throw new ValidationException("Параметры start и end обязательны");
+        }
+
+        return getStats(query.getStart(), query.getEnd(), query.getUris(), query.isUnique(), query.isApproximate());
+    }
+
+    /**
+     * Возвращает просмотры событий по их идентификаторам. Просмотры считаются точно,
+     * по числовому идентификатору события в хитах {@code /events/{id}}.
+     */
+    @PostMapping("/stats/views")
+    public List<EventViewsDto> getEventViews(@RequestBody EventViewsQueryDto query) {
+        log.debug("Получен запрос просмотров событий: start={}, end={}, ids={}, unique={}",
+                query.getStart(), query.getEnd(),
+                query.getIds() == null ? 0 : query.getIds().size(), query.isUnique());
+
+        if (query.getStart() == null || query.getEnd() == null) {
+            throw new ValidationException("Параметры start и end обязательны");
+        }
+        if (query.getIds() == null) {
+            throw new ValidationException("Параметр ids обязателен");
+        }
+
+        return statsService.getEventViews(query.getStart(), query.getEnd(), query.getIds(), query.isUnique());
+    }
+}
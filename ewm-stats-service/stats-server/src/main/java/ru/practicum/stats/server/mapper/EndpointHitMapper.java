@@ -1,16 +1,22 @@
 package ru.practicum.stats.server.mapper;
 
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 import ru.practicum.stats.server.model.EndpointHit;
 import ru.practicum.stats.server.repository.StatsRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class EndpointHitMapper {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public static final String EVENT_URI_PREFIX = "/events/";
+
+    private static final Pattern EVENT_URI_PATTERN = Pattern.compile("^" + EVENT_URI_PREFIX + "(\\d{1,18})$");
 
     public static EndpointHit toEntity(EndpointHitDto dto) {
         return EndpointHit.builder()
@@ -18,9 +24,21 @@ public class EndpointHitMapper {
                 .uri(dto.getUri())
                 .ip(dto.getIp())
                 .timestamp(LocalDateTime.parse(dto.getTimestamp(), FORMATTER))
+                .resourceId(toResourceId(dto.getUri()))
                 .build();
     }
 
+    /**
+     * Извлекает идентификатор события из URI вида {@code /events/{id}}; для остальных URI возвращает null.
+     */
+    public static Long toResourceId(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        Matcher matcher = EVENT_URI_PATTERN.matcher(uri);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
     public static EndpointHitDto toDto(EndpointHit entity) {
         return new EndpointHitDto(
                 entity.getId(),
@@ -38,4 +56,8 @@ public class EndpointHitMapper {
                 projection.getHits()
         );
     }
+
+    public static EventViewsDto toEventViewsDto(StatsRepository.EventViewsProjection projection) {
+        return new EventViewsDto(projection.getEventId(), projection.getHits());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "hits_day", indexes = @Index(name = "idx_hits_day_uri_bucket", columnList = "uri, bucket_start"))
+@NoArgsConstructor
+public class DayHitRollup extends HitRollup {
+}
@@ -30,4 +30,10 @@ public class EndpointHit {
 
     @Column(name = "hit_timestamp", nullable = false)
     private LocalDateTime timestamp;
+
+    /**
+     * Идентификатор события для хитов вида {@code /events/{id}}, для остальных URI — {@code null}.
+     */
+    @Column(name = "resource_id")
+    private Long resourceId;
 }
\ No newline at end of file
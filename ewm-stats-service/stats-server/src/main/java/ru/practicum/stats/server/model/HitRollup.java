@@ -0,0 +1,25 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Число хитов по паре (app, uri) за один интервал фиксированной длины.
+ * Строки создаются и увеличиваются только через {@code StatsRollupRepository}.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class HitRollup {
+
+    @EmbeddedId
+    private HitRollupId id;
+
+    @Column(nullable = false)
+    private Long hits;
+}
@@ -0,0 +1,29 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Ключ агрегата хитов: начало временного интервала, приложение и URI.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class HitRollupId implements Serializable {
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 100)
+    private String app;
+
+    @Column(nullable = false, length = 200)
+    private String uri;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ненулевой регистр скетча HyperLogLog уникальных IP по паре (app, uri) за один интервал.
+ * Значение только растёт; строки изменяются только через {@code StatsSketchRepository}.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class HllRegister {
+
+    @EmbeddedId
+    private HllRegisterId id;
+
+    @Column(name = "register_value", nullable = false)
+    private Short registerValue;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Ключ регистра HyperLogLog: интервал, приложение, URI, точность скетча и номер регистра.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class HllRegisterId implements Serializable {
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 100)
+    private String app;
+
+    @Column(nullable = false, length = 200)
+    private String uri;
+
+    @Column(name = "hll_precision", nullable = false)
+    private Integer precision;
+
+    @Column(name = "register_idx", nullable = false)
+    private Integer registerIdx;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "hits_hour", indexes = @Index(name = "idx_hits_hour_uri_bucket", columnList = "uri, bucket_start"))
+@NoArgsConstructor
+public class HourHitRollup extends HitRollup {
+}
@@ -0,0 +1,44 @@
+package ru.practicum.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Уровни агрегации хитов — от самого мелкого к самому крупному.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RollupGranularity {
+
+    MINUTE("hits_minute", ChronoUnit.MINUTES),
+    HOUR("hits_hour", ChronoUnit.HOURS),
+    DAY("hits_day", ChronoUnit.DAYS);
+
+    private final String table;
+    private final ChronoUnit unit;
+
+    /**
+     * Начало интервала, в который попадает момент времени.
+     */
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Ближайшая граница интервала не раньше заданного момента.
+     */
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+
+    /**
+     * Следующий, более мелкий уровень или {@code null} для минутного.
+     */
+    public RollupGranularity finer() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Срок хранения сырых хитов ({@code stats.hits.retention-months}, 0 — хранить всё).
+ * <p>
+ * Месячные секции {@code hits} старше срока удаляет {@code HitPartitionManager}; агрегаты и скетчи
+ * при этом сохраняются, и статистика за такие периоды читается из них.
+ */
+@Component
+public class HitRetention {
+
+    private final int months;
+
+    public HitRetention(@Value("${stats.hits.retention-months:0}") int months) {
+        this.months = months;
+    }
+
+    public int getMonths() {
+        return months;
+    }
+
+    /**
+     * Первый месяц, сырые хиты которого ещё хранятся, или {@code null}, если они хранятся всегда.
+     */
+    @Nullable
+    public YearMonth firstRawMonth() {
+        return months > 0 ? YearMonth.now().minusMonths(months) : null;
+    }
+
+    /**
+     * Начало периода, за который сырые хиты ещё хранятся, или {@code null}, если они хранятся всегда.
+     */
+    @Nullable
+    public LocalDateTime rawHitsFrom() {
+        YearMonth month = firstRawMonth();
+        return month != null ? month.atDay(1).atStartOfDay() : null;
+    }
+
+    /**
+     * Хранятся ли сырые хиты за весь период, начинающийся с {@code start}.
+     */
+    public boolean coversRawHits(LocalDateTime start) {
+        LocalDateTime from = rawHitsFrom();
+        return from == null || !start.isBefore(from);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import ru.practicum.stats.server.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Раскладывает период [start, end] на отрезки, которые можно прочитать из агрегатов,
+ * и неполные отрезки на краях, которые читаются из сырых хитов.
+ */
+final class StatsRangeSplitter {
+
+    /**
+     * Отрезок периода.
+     *
+     * @param granularity уровень агрегата или {@code null} для сырых хитов
+     * @param from        начало (включительно)
+     * @param to          конец: для агрегатов и левого края — не включительно, для правого края — включительно
+     * @param toInclusive включается ли {@code to}
+     */
+    record Segment(@Nullable RollupGranularity granularity, LocalDateTime from, LocalDateTime to, boolean toInclusive) {
+
+        boolean isRaw() {
+            return granularity == null;
+        }
+
+        /**
+         * Отрезок агрегата {@code granularity} из целых интервалов, которые пересекаются с этим отрезком.
+         * Нужен для краёв периода, сырые хиты которых уже удалены: ответ получается с точностью до интервала.
+         */
+        Segment widenedTo(RollupGranularity granularity) {
+            LocalDateTime widenedTo = toInclusive ? granularity.floor(to).plus(1, granularity.getUnit())
+                    : granularity.ceil(to);
+            return new Segment(granularity, granularity.floor(from), widenedTo, false);
+        }
+    }
+
+    private StatsRangeSplitter() {
+    }
+
+    /**
+     * @param finest самый мелкий уровень агрегатов, который можно использовать
+     */
+    static List<Segment> split(LocalDateTime start, LocalDateTime end, RollupGranularity finest) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime alignedStart = finest.ceil(start);
+        LocalDateTime alignedEnd = finest.floor(end);
+
+        if (alignedStart.isBefore(alignedEnd)) {
+            if (start.isBefore(alignedStart)) {
+                segments.add(new Segment(null, start, alignedStart, false));
+            }
+            decompose(alignedStart, alignedEnd, RollupGranularity.DAY, finest, segments);
+            segments.add(new Segment(null, alignedEnd, end, true));
+        } else {
+            segments.add(new Segment(null, start, end, true));
+        }
+        return segments;
+    }
+
+    /**
+     * Раскладывает выровненный интервал [from, to) на самые крупные целые интервалы:
+     * сначала крупный уровень в середине, затем более мелкие по краям.
+     */
+    private static void decompose(LocalDateTime from, LocalDateTime to, RollupGranularity granularity,
+                                  RollupGranularity finest, List<Segment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == finest) {
+            segments.add(new Segment(granularity, from, to, false));
+            return;
+        }
+
+        RollupGranularity finer = granularity.finer();
+        LocalDateTime innerStart = granularity.ceil(from);
+        LocalDateTime innerEnd = granularity.floor(to);
+        if (innerStart.isBefore(innerEnd)) {
+            decompose(from, innerStart, finer, finest, segments);
+            segments.add(new Segment(granularity, innerStart, innerEnd, false));
+            decompose(innerEnd, to, finer, finest, segments);
+        } else {
+            decompose(from, to, finer, finest, segments);
+        }
+    }
+}
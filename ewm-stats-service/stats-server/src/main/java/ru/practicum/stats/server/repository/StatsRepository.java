@@ -6,9 +6,11 @@ import org.springframework.data.repository.query.Param;
 import ru.practicum.stats.server.model.EndpointHit;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
+public interface StatsRepository extends JpaRepository<EndpointHit, Long>, StatsRepositoryCustom,
+        StatsRollupRepository, StatsSketchRepository {
 
     // =============== МЕТОДЫ БЕЗ ФИЛЬТРАЦИИ ПО URI ===============
 
@@ -54,7 +56,29 @@ public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
             @Param("end") LocalDateTime end,
             @Param("uris") List<String> uris);
 
-    // =============== ВЛОЖЁННЫЙ ИНТЕРФЕЙС ПРОЕКЦИИ ===============
+    // =============== ПРОСМОТРЫ СОБЫТИЙ ПО ИДЕНТИФИКАТОРУ ===============
+
+    @Query("SELECT h.resourceId AS eventId, COUNT(h.id) AS hits " +
+            "FROM EndpointHit h " +
+            "WHERE h.resourceId IN :ids " +
+            "  AND h.timestamp BETWEEN :start AND :end " +
+            "GROUP BY h.resourceId")
+    List<EventViewsProjection> findEventViews(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h.resourceId AS eventId, COUNT(DISTINCT h.ip) AS hits " +
+            "FROM EndpointHit h " +
+            "WHERE h.resourceId IN :ids " +
+            "  AND h.timestamp BETWEEN :start AND :end " +
+            "GROUP BY h.resourceId")
+    List<EventViewsProjection> findUniqueEventViews(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("ids") Collection<Long> ids);
+
+    // =============== ВЛОЖЁННЫЕ ИНТЕРФЕЙСЫ ПРОЕКЦИЙ ===============
 
     interface ViewStatsProjection {
         String getApp();
@@ -63,4 +87,10 @@ public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
 
         Long getHits();
     }
+
+    interface EventViewsProjection {
+        Long getEventId();
+
+        Long getHits();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.util.List;
+
+/**
+ * Дополнительные операции над таблицей хитов, которые неудобно выражать через JPA.
+ */
+public interface StatsRepositoryCustom {
+
+    /**
+     * Сохраняет хиты пакетными INSERT-запросами JDBC (без возврата сгенерированных id).
+     */
+    void batchInsert(List<EndpointHit> hits);
+}
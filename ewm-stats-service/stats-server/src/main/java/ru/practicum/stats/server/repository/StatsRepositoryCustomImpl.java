@@ -0,0 +1,43 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Реализация {@link StatsRepositoryCustom} на {@link JdbcTemplate}.
+ * Hibernate не группирует INSERT для сущностей с IDENTITY-ключом,
+ * поэтому пакетная вставка выполняется напрямую через JDBC.
+ */
+public class StatsRepositoryCustomImpl implements StatsRepositoryCustom {
+
+    private static final String INSERT_HIT_SQL =
+            "INSERT INTO hits (app, uri, ip, hit_timestamp, resource_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public StatsRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${stats.hits.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void batchInsert(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HIT_SQL, hits, batchSize, (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+            ps.setObject(5, hit.getResourceId(), Types.BIGINT);
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Операции над агрегатами хитов по минутам, часам и дням ({@code hits_minute}, {@code hits_hour}, {@code hits_day}).
+ */
+public interface StatsRollupRepository {
+
+    /**
+     * Увеличивает счётчики агрегатов всех уровней на сохранённые хиты.
+     * Вызывается в той же транзакции, что и вставка хитов в {@code hits}.
+     */
+    void addToRollups(List<EndpointHit> hits);
+
+    /**
+     * Считает неуникальные хиты за период [start, end]: полностью покрытые дни, часы и минуты берутся
+     * из агрегатов, неполные минуты на краях — из {@code hits}. Результат совпадает с подсчётом по {@code hits}.
+     */
+    List<ViewStatsDto> findRolledUpStats(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris);
+
+    /**
+     * Заполняет агрегаты по уже накопленным хитам, если агрегаты ещё пусты.
+     *
+     * @return {@code true}, если заполнение выполнялось
+     */
+    boolean backfillRollupsIfEmpty();
+}
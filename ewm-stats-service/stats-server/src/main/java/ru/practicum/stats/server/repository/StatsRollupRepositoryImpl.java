@@ -0,0 +1,164 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.model.HitRollupId;
+import ru.practicum.stats.server.model.RollupGranularity;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Реализация {@link StatsRollupRepository} на JDBC.
+ * <p>
+ * Увеличение агрегатов выполняется через upsert: {@code INSERT ... ON CONFLICT} в PostgreSQL
+ * и {@code MERGE} в остальных СУБД (H2 в тестах).
+ * <p>
+ * Края периода, сырые хиты которых старше срока хранения ({@link HitRetention}), читаются
+ * из минутного агрегата целыми минутами: секции с такими хитами удаляет {@code HitPartitionManager}.
+ */
+public class StatsRollupRepositoryImpl implements StatsRollupRepository {
+
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO %s AS t (bucket_start, app, uri, hits) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, app, uri) DO UPDATE SET hits = t.hits + EXCLUDED.hits";
+
+    private static final String MERGE_UPSERT_SQL =
+            "MERGE INTO %s t " +
+            "USING (VALUES (CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(200)), CAST(? AS BIGINT))) " +
+            "AS s (bucket_start, app, uri, hits) " +
+            "ON t.bucket_start = s.bucket_start AND t.app = s.app AND t.uri = s.uri " +
+            "WHEN MATCHED THEN UPDATE SET hits = t.hits + s.hits " +
+            "WHEN NOT MATCHED THEN INSERT (bucket_start, app, uri, hits) " +
+            "VALUES (s.bucket_start, s.app, s.uri, s.hits)";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO %1$s (bucket_start, app, uri, hits) " +
+            "SELECT DATE_TRUNC('%2$s', hit_timestamp), app, uri, COUNT(*) FROM hits " +
+            "GROUP BY DATE_TRUNC('%2$s', hit_timestamp), app, uri";
+
+    /**
+     * Порядок ключей при upsert одинаков во всех транзакциях, чтобы параллельные пакеты не блокировали друг друга
+     * во встречном порядке.
+     */
+    private static final Comparator<HitRollupId> KEY_ORDER = Comparator
+            .comparing(HitRollupId::getBucketStart)
+            .thenComparing(HitRollupId::getApp)
+            .thenComparing(HitRollupId::getUri);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int batchSize;
+    private final HitRetention hitRetention;
+    private volatile Boolean postgres;
+
+    public StatsRollupRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${stats.hits.jdbc-batch-size:500}") int batchSize,
+                                     HitRetention hitRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchSize = batchSize;
+        this.hitRetention = hitRetention;
+    }
+
+    @Override
+    public void addToRollups(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        String upsertTemplate = isPostgres() ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<HitRollupId, Long> counts = new TreeMap<>(KEY_ORDER);
+            for (EndpointHit hit : hits) {
+                HitRollupId key = new HitRollupId(granularity.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+                counts.merge(key, 1L, Long::sum);
+            }
+
+            jdbcTemplate.batchUpdate(upsertTemplate.formatted(granularity.getTable()),
+                    new ArrayList<>(counts.entrySet()), batchSize, (ps, entry) -> {
+                        ps.setTimestamp(1, Timestamp.valueOf(entry.getKey().getBucketStart()));
+                        ps.setString(2, entry.getKey().getApp());
+                        ps.setString(3, entry.getKey().getUri());
+                        ps.setLong(4, entry.getValue());
+                    });
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> findRolledUpStats(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris) {
+        boolean hasUris = uris != null && !uris.isEmpty();
+        String uriFilter = hasUris ? " AND uri IN (:uris)" : "";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (hasUris) {
+            params.addValue("uris", uris);
+        }
+
+        LocalDateTime rawFrom = hitRetention.rawHitsFrom();
+        List<String> parts = new ArrayList<>();
+        for (StatsRangeSplitter.Segment segment : StatsRangeSplitter.split(start, end, RollupGranularity.MINUTE)) {
+            // Сырой край короче двух минут: если он начинается до срока хранения, он целиком читается из агрегата
+            StatsRangeSplitter.Segment part = segment.isRaw() && rawFrom != null && segment.from().isBefore(rawFrom)
+                    ? segment.widenedTo(RollupGranularity.MINUTE)
+                    : segment;
+            parts.add(part.isRaw()
+                    ? rawPart(parts.size(), part, params, uriFilter)
+                    : rollupPart(parts.size(), part, params, uriFilter));
+        }
+
+        String sql = "SELECT app, uri, SUM(hits) AS total FROM (" +
+                String.join(" UNION ALL ", parts) +
+                ") s GROUP BY app, uri ORDER BY total DESC";
+
+        return namedJdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("total")));
+    }
+
+    @Override
+    public boolean backfillRollupsIfEmpty() {
+        Boolean hasRollups = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + RollupGranularity.MINUTE.getTable() + ")", Boolean.class);
+        Boolean hasHits = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM hits)", Boolean.class);
+        if (Boolean.TRUE.equals(hasRollups) || !Boolean.TRUE.equals(hasHits)) {
+            return false;
+        }
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            String unit = granularity.name().toLowerCase(Locale.ROOT);
+            jdbcTemplate.update(BACKFILL_SQL.formatted(granularity.getTable(), unit));
+        }
+        return true;
+    }
+
+    private String rollupPart(int index, StatsRangeSplitter.Segment segment,
+                              MapSqlParameterSource params, String uriFilter) {
+        params.addValue("from" + index, Timestamp.valueOf(segment.from()));
+        params.addValue("to" + index, Timestamp.valueOf(segment.to()));
+        return "SELECT app, uri, hits FROM " + segment.granularity().getTable() +
+                " WHERE bucket_start >= :from" + index + " AND bucket_start < :to" + index + uriFilter;
+    }
+
+    private String rawPart(int index, StatsRangeSplitter.Segment segment,
+                           MapSqlParameterSource params, String uriFilter) {
+        params.addValue("from" + index, Timestamp.valueOf(segment.from()));
+        params.addValue("to" + index, Timestamp.valueOf(segment.to()));
+        return "SELECT app, uri, COUNT(*) AS hits FROM hits" +
+                " WHERE hit_timestamp >= :from" + index +
+                " AND hit_timestamp " + (segment.toInclusive() ? "<=" : "<") + " :to" + index +
+                uriFilter + " GROUP BY app, uri";
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres"));
+        }
+        return postgres;
+    }
+}
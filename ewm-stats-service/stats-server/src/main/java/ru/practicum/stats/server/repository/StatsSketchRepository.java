@@ -0,0 +1,33 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Операции над регистрами HyperLogLog уникальных IP по часам и дням ({@code hll_hour}, {@code hll_day}).
+ */
+public interface StatsSketchRepository {
+
+    /**
+     * Учитывает IP сохранённых хитов в скетчах всех уровней.
+     * Вызывается в той же транзакции, что и вставка хитов в {@code hits}.
+     */
+    void addToSketches(List<EndpointHit> hits);
+
+    /**
+     * Приближённо считает уникальные IP за период [start, end]: регистры целых дней и часов
+     * объединяются максимумом, IP неполных часов на краях добавляются из {@code hits}.
+     */
+    List<ViewStatsDto> findApproximateUniqueStats(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris);
+
+    /**
+     * Заполняет скетчи текущей точности по уже накопленным хитам, если они ещё пусты.
+     *
+     * @return {@code true}, если заполнение выполнялось
+     */
+    boolean backfillSketchesIfEmpty();
+}
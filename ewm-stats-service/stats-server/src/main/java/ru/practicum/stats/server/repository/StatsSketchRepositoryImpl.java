@@ -0,0 +1,197 @@
+package ru.practicum.stats.server.repository;
+
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.model.HllRegisterId;
+import ru.practicum.stats.server.model.RollupGranularity;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Реализация {@link StatsSketchRepository} на JDBC.
+ * <p>
+ * Каждый ненулевой регистр хранится отдельной строкой и обновляется upsert-ом с условием
+ * «только если новое значение больше» — {@code INSERT ... ON CONFLICT} в PostgreSQL и {@code MERGE}
+ * в остальных СУБД. Такое обновление идемпотентно и не требует чтения скетча перед записью.
+ */
+public class StatsSketchRepositoryImpl implements StatsSketchRepository {
+
+    private static final Map<RollupGranularity, String> TABLES = new EnumMap<>(Map.of(
+            RollupGranularity.HOUR, "hll_hour",
+            RollupGranularity.DAY, "hll_day"));
+
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO %s AS t (bucket_start, app, uri, hll_precision, register_idx, register_value) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, app, uri, hll_precision, register_idx) " +
+            "DO UPDATE SET register_value = EXCLUDED.register_value " +
+            "WHERE t.register_value < EXCLUDED.register_value";
+
+    private static final String MERGE_UPSERT_SQL =
+            "MERGE INTO %s t " +
+            "USING (VALUES (CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(200)), " +
+            "CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS SMALLINT))) " +
+            "AS s (bucket_start, app, uri, hll_precision, register_idx, register_value) " +
+            "ON t.bucket_start = s.bucket_start AND t.app = s.app AND t.uri = s.uri " +
+            "AND t.hll_precision = s.hll_precision AND t.register_idx = s.register_idx " +
+            "WHEN MATCHED AND t.register_value < s.register_value THEN UPDATE SET register_value = s.register_value " +
+            "WHEN NOT MATCHED THEN INSERT (bucket_start, app, uri, hll_precision, register_idx, register_value) " +
+            "VALUES (s.bucket_start, s.app, s.uri, s.hll_precision, s.register_idx, s.register_value)";
+
+    private static final Comparator<HllRegisterId> KEY_ORDER = Comparator
+            .comparing(HllRegisterId::getBucketStart)
+            .thenComparing(HllRegisterId::getApp)
+            .thenComparing(HllRegisterId::getUri)
+            .thenComparing(HllRegisterId::getRegisterIdx);
+
+    private static final int BACKFILL_CHUNK_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int batchSize;
+    private final int precision;
+    private volatile Boolean postgres;
+
+    public StatsSketchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${stats.hits.jdbc-batch-size:500}") int batchSize,
+                                     @Value("${stats.hll.precision:12}") int precision) {
+        HyperLogLog.validatePrecision(precision);
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchSize = batchSize;
+        this.precision = precision;
+    }
+
+    @Override
+    public void addToSketches(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        String upsertTemplate = isPostgres() ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+
+        for (Map.Entry<RollupGranularity, String> table : TABLES.entrySet()) {
+            Map<HllRegisterId, Integer> registers = new TreeMap<>(KEY_ORDER);
+            for (EndpointHit hit : hits) {
+                long hash = HyperLogLog.hash(hit.getIp());
+                HllRegisterId key = new HllRegisterId(table.getKey().floor(hit.getTimestamp()),
+                        hit.getApp(), hit.getUri(), precision, HyperLogLog.registerIndex(hash, precision));
+                registers.merge(key, HyperLogLog.registerValue(hash, precision), Math::max);
+            }
+
+            jdbcTemplate.batchUpdate(upsertTemplate.formatted(table.getValue()),
+                    new ArrayList<>(registers.entrySet()), batchSize, (ps, entry) -> {
+                        ps.setTimestamp(1, Timestamp.valueOf(entry.getKey().getBucketStart()));
+                        ps.setString(2, entry.getKey().getApp());
+                        ps.setString(3, entry.getKey().getUri());
+                        ps.setInt(4, precision);
+                        ps.setInt(5, entry.getKey().getRegisterIdx());
+                        ps.setShort(6, entry.getValue().shortValue());
+                    });
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> findApproximateUniqueStats(LocalDateTime start, LocalDateTime end,
+                                                         @Nullable List<String> uris) {
+        boolean hasUris = uris != null && !uris.isEmpty();
+        String uriFilter = hasUris ? " AND uri IN (:uris)" : "";
+
+        List<String> registerParts = new ArrayList<>();
+        List<StatsRangeSplitter.Segment> rawSegments = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("precision", precision);
+        if (hasUris) {
+            params.addValue("uris", uris);
+        }
+
+        for (StatsRangeSplitter.Segment segment : StatsRangeSplitter.split(start, end, RollupGranularity.HOUR)) {
+            if (segment.isRaw()) {
+                rawSegments.add(segment);
+                continue;
+            }
+            int index = registerParts.size();
+            params.addValue("from" + index, Timestamp.valueOf(segment.from()));
+            params.addValue("to" + index, Timestamp.valueOf(segment.to()));
+            registerParts.add("SELECT app, uri, register_idx, register_value FROM " + TABLES.get(segment.granularity()) +
+                    " WHERE hll_precision = :precision" +
+                    " AND bucket_start >= :from" + index + " AND bucket_start < :to" + index + uriFilter);
+        }
+
+        Map<List<String>, HyperLogLog> sketches = new HashMap<>();
+        if (!registerParts.isEmpty()) {
+            String sql = "SELECT app, uri, register_idx, MAX(register_value) AS register_value FROM (" +
+                    String.join(" UNION ALL ", registerParts) +
+                    ") s GROUP BY app, uri, register_idx";
+            namedJdbcTemplate.query(sql, params, rs -> {
+                sketchFor(sketches, rs.getString("app"), rs.getString("uri"))
+                        .mergeRegister(rs.getInt("register_idx"), rs.getInt("register_value"));
+            });
+        }
+
+        for (StatsRangeSplitter.Segment segment : rawSegments) {
+            MapSqlParameterSource rawParams = new MapSqlParameterSource()
+                    .addValue("from", Timestamp.valueOf(segment.from()))
+                    .addValue("to", Timestamp.valueOf(segment.to()));
+            if (hasUris) {
+                rawParams.addValue("uris", uris);
+            }
+            String sql = "SELECT DISTINCT app, uri, ip FROM hits WHERE hit_timestamp >= :from" +
+                    " AND hit_timestamp " + (segment.toInclusive() ? "<=" : "<") + " :to" + uriFilter;
+            namedJdbcTemplate.query(sql, rawParams, rs -> {
+                sketchFor(sketches, rs.getString("app"), rs.getString("uri")).add(rs.getString("ip"));
+            });
+        }
+
+        return sketches.entrySet().stream()
+                .map(e -> new ViewStatsDto(e.getKey().get(0), e.getKey().get(1), e.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    @Override
+    public boolean backfillSketchesIfEmpty() {
+        Boolean hasSketches = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM hll_hour WHERE hll_precision = ?)", Boolean.class, precision);
+        Boolean hasHits = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM hits)", Boolean.class);
+        if (Boolean.TRUE.equals(hasSketches) || !Boolean.TRUE.equals(hasHits)) {
+            return false;
+        }
+
+        // Upsert по максимуму идемпотентен, поэтому хиты можно учитывать частями
+        List<EndpointHit> chunk = new ArrayList<>(BACKFILL_CHUNK_SIZE);
+        jdbcTemplate.query("SELECT app, uri, ip, hit_timestamp FROM hits", rs -> {
+            chunk.add(EndpointHit.builder()
+                    .app(rs.getString("app"))
+                    .uri(rs.getString("uri"))
+                    .ip(rs.getString("ip"))
+                    .timestamp(rs.getTimestamp("hit_timestamp").toLocalDateTime())
+                    .build());
+            if (chunk.size() == BACKFILL_CHUNK_SIZE) {
+                addToSketches(chunk);
+                chunk.clear();
+            }
+        });
+        addToSketches(chunk);
+        return true;
+    }
+
+    private HyperLogLog sketchFor(Map<List<String>, HyperLogLog> sketches, String app, String uri) {
+        return sketches.computeIfAbsent(List.of(app, uri), key -> new HyperLogLog(precision));
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres"));
+        }
+        return postgres;
+    }
+}
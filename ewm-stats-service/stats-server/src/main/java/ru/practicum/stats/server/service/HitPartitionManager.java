@@ -0,0 +1,165 @@
+package ru.practicum.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.repository.HitRetention;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживает месячные секции таблицы {@code hits} (PostgreSQL):
+ * заранее создаёт секции на ближайшие месяцы и удаляет целиком секции старше срока хранения.
+ * Для других СУБД и несекционированной таблицы ничего не делает.
+ * <p>
+ * Хиты с датой вне созданных секций (клиент передаёт время сам) попадают в секцию по умолчанию
+ * {@code hits_default}. При создании секции месяца его хиты переносятся в неё, а хиты старше срока хранения
+ * удаляются из секции по умолчанию вместе с секциями.
+ */
+@Component
+@Slf4j
+public class HitPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^hits_(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String DEFAULT_PARTITION = "hits_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HitRetention hitRetention;
+    private final int monthsAhead;
+
+    public HitPartitionManager(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               HitRetention hitRetention,
+                               @Value("${stats.hits.partitions.months-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hitRetention = hitRetention;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hits.partitions.check-interval:PT6H}")
+    public void maintainPartitions() {
+        if (!isPartitionedPostgresTable()) {
+            log.debug("Таблица hits не секционирована, обслуживание секций пропущено");
+            return;
+        }
+        List<YearMonth> existing = findPartitionMonths();
+        YearMonth current = YearMonth.now();
+
+        createUpcomingPartitions(existing, current);
+        YearMonth keepFrom = hitRetention.firstRawMonth();
+        if (keepFrom != null) {
+            dropExpiredPartitions(existing, keepFrom);
+        }
+    }
+
+    private void createUpcomingPartitions(List<YearMonth> existing, YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                createPartition(month);
+            } catch (DataAccessException e) {
+                log.error("Не удалось создать секцию {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Создаёт секцию месяца и переносит в неё хиты этого месяца из секции по умолчанию в одной транзакции.
+     * {@code CREATE TABLE ... PARTITION OF} не создаёт секцию, пока в секции по умолчанию есть её строки,
+     * поэтому секция создаётся отдельной таблицей, заполняется и присоединяется. Секция по умолчанию
+     * заблокирована до конца транзакции: новые хиты месяца не попадут в неё между переносом и присоединением.
+     */
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        String from = month.atDay(1).atStartOfDay().toString();
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().toString();
+
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name))) {
+                // Секцию уже создал другой экземпляр сервиса
+                return null;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE hits INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int count = jdbcTemplate.update(String.format(
+                    "WITH moved AS (DELETE FROM %s WHERE hit_timestamp >= '%s' AND hit_timestamp < '%s' RETURNING *) " +
+                    "INSERT INTO %s SELECT * FROM moved", DEFAULT_PARTITION, from, to, name));
+            jdbcTemplate.execute(String.format(
+                    "ALTER TABLE hits ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')", name, from, to));
+            return count;
+        });
+
+        if (moved != null) {
+            log.info("Создана секция {} таблицы hits, перенесено хитов из секции по умолчанию: {}", name, moved);
+        }
+    }
+
+    /**
+     * Удаляет секции, целиком лежащие раньше {@code keepFrom}. DROP секции не оставляет «мёртвых» строк,
+     * в отличие от DELETE. Хиты того же периода в секции по умолчанию удаляются DELETE: их там единицы.
+     * Агрегаты и скетчи при этом сохраняются: статистика за периоды старше {@code keepFrom} читается из них
+     * (см. {@code StatsRollupRepositoryImpl} и {@code StatsServiceImpl}).
+     */
+    private void dropExpiredPartitions(List<YearMonth> existing, YearMonth keepFrom) {
+        for (YearMonth month : existing) {
+            if (month.isBefore(keepFrom)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+                log.info("Удалена секция {} таблицы hits (срок хранения {} мес.)",
+                        partitionName(month), hitRetention.getMonths());
+            }
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE hit_timestamp < ?",
+                Timestamp.valueOf(keepFrom.atDay(1).atStartOfDay()));
+        if (deleted > 0) {
+            log.info("Из секции по умолчанию удалено {} хитов старше срока хранения", deleted);
+        }
+    }
+
+    private List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'hits'", String.class).stream()
+                .map(name -> {
+                    Matcher m = PARTITION_NAME.matcher(name);
+                    return m.matches() ? YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))) : null;
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private boolean isPartitionedPostgresTable() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres"));
+        if (!Boolean.TRUE.equals(postgres)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'hits')", Boolean.class));
+    }
+
+    private String partitionName(YearMonth month) {
+        return "hits_" + month.format(NAME_FORMAT);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.stats.server.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.repository.StatsRepository;
+
+/**
+ * При старте заполняет агрегаты и скетчи уникальных IP по уже накопленной таблице {@code hits}, если они пусты
+ * (первый запуск после их появления или смены точности скетчей). Выполняется до начала приёма запросов.
+ */
+@Component
+@Slf4j
+public class HitRollupInitializer {
+
+    private final StatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public HitRollupInitializer(StatsRepository statsRepository, PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void backfill() {
+        Boolean filled = transactionTemplate.execute(status -> statsRepository.backfillRollupsIfEmpty());
+        if (Boolean.TRUE.equals(filled)) {
+            log.info("Агрегаты хитов заполнены по накопленным данным");
+        }
+        Boolean sketched = transactionTemplate.execute(status -> statsRepository.backfillSketchesIfEmpty());
+        if (Boolean.TRUE.equals(sketched)) {
+            log.info("Скетчи уникальных IP заполнены по накопленным данным");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.stats.server.service;
 
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.util.List;
@@ -9,5 +11,17 @@ public interface StatsService {
 
     void saveHit(EndpointHitDto endpointHitDto);
 
+    HitBatchResultDto saveHits(List<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique);
+
+    /**
+     * Уникальные просмотры, посчитанные приближённо по скетчам HyperLogLog.
+     */
+    List<ViewStatsDto> getApproximateUniqueStats(String start, String end, List<String> uris);
+
+    /**
+     * Просмотры событий с указанными идентификаторами; события без просмотров в ответ не попадают.
+     */
+    List<EventViewsDto> getEventViews(String start, String end, List<Long> ids, boolean unique);
 }
\ No newline at end of file
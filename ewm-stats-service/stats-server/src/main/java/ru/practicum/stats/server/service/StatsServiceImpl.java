@@ -6,16 +6,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 import ru.practicum.stats.server.exception.ValidationException; // ← импорт нового исключения
 import ru.practicum.stats.server.mapper.EndpointHitMapper;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.HitRetention;
 import ru.practicum.stats.server.repository.StatsRepository;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,7 +34,11 @@ import java.util.stream.Collectors;
 public class StatsServiceImpl implements StatsService {
 
     private final StatsRepository statsRepository;
+    private final HitRetention hitRetention;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_APP_LENGTH = 100;
+    private static final int MAX_URI_LENGTH = 200;
+    private static final int MAX_IP_LENGTH = 45;
 
     @Override
     @Transactional
@@ -36,11 +49,38 @@ public class StatsServiceImpl implements StatsService {
                 endpointHitDto.getIp(),
                 endpointHitDto.getTimestamp());
 
-        statsRepository.save(EndpointHitMapper.toEntity(endpointHitDto));
+        EndpointHit saved = statsRepository.save(EndpointHitMapper.toEntity(endpointHitDto));
+        statsRepository.addToRollups(List.of(saved));
+        statsRepository.addToSketches(List.of(saved));
 
         log.debug("Данные о посещении успешно сохранены в БД");
     }
 
+    @Override
+    @Transactional
+    public HitBatchResultDto saveHits(List<EndpointHitDto> endpointHitDtos) {
+        log.debug("Пакетное сохранение данных о посещениях: {} записей", endpointHitDtos.size());
+
+        List<EndpointHit> accepted = new ArrayList<>(endpointHitDtos.size());
+        List<Integer> rejectedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < endpointHitDtos.size(); i++) {
+            EndpointHit hit = toValidEntity(endpointHitDtos.get(i));
+            if (hit != null) {
+                accepted.add(hit);
+            } else {
+                rejectedIndexes.add(i);
+            }
+        }
+
+        statsRepository.batchInsert(accepted);
+        statsRepository.addToRollups(accepted);
+        statsRepository.addToSketches(accepted);
+
+        log.debug("Пакет сохранён: принято {}, отклонено {}", accepted.size(), rejectedIndexes.size());
+        return new HitBatchResultDto(accepted.size(), rejectedIndexes.size(), rejectedIndexes);
+    }
+
     @Override
     public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
         log.debug("Запрос статистики: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
@@ -52,19 +92,98 @@ public class StatsServiceImpl implements StatsService {
         validateTimeRange(startTime, endTime);
 
         // 2. Получаем данные из репозитория
-        List<StatsRepository.ViewStatsProjection> projections = fetchStatsFromRepository(
-                startTime, endTime, uris, unique
-        );
-
-        // 3. Преобразуем в DTO
-        List<ViewStatsDto> result = projections.stream()
-                .map(EndpointHitMapper::toViewStatsDto)
-                .collect(Collectors.toList());
+        List<ViewStatsDto> result = fetchStatsFromRepository(startTime, endTime, uris, unique);
 
         log.debug("Статистика успешно получена. Количество записей: {}", result.size());
         return result;
     }
 
+    @Override
+    public List<ViewStatsDto> getApproximateUniqueStats(String start, String end, List<String> uris) {
+        log.debug("Запрос приближённой уникальной статистики: start={}, end={}, uris={}", start, end, uris);
+
+        LocalDateTime startTime = parseAndDecodeDateTime(start, "начало");
+        LocalDateTime endTime = parseAndDecodeDateTime(end, "конец");
+
+        validateTimeRange(startTime, endTime);
+
+        List<ViewStatsDto> result = statsRepository.findApproximateUniqueStats(startTime, endTime, uris);
+
+        log.debug("Приближённая статистика получена. Количество записей: {}", result.size());
+        return result;
+    }
+
+    @Override
+    public List<EventViewsDto> getEventViews(String start, String end, List<Long> ids, boolean unique) {
+        log.debug("Запрос просмотров событий: start={}, end={}, ids={}, unique={}", start, end, ids.size(), unique);
+
+        LocalDateTime startTime = parseAndDecodeDateTime(start, "начало");
+        LocalDateTime endTime = parseAndDecodeDateTime(end, "конец");
+
+        validateTimeRange(startTime, endTime);
+
+        Set<Long> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+
+        if (!hitRetention.coversRawHits(startTime)) {
+            return findExpiredEventViews(startTime, endTime, distinctIds, unique);
+        }
+
+        List<StatsRepository.EventViewsProjection> projections = unique
+                ? statsRepository.findUniqueEventViews(startTime, endTime, distinctIds)
+                : statsRepository.findEventViews(startTime, endTime, distinctIds);
+
+        log.debug("Просмотры получены для {} событий из {}", projections.size(), distinctIds.size());
+        return projections.stream()
+                .map(EndpointHitMapper::toEventViewsDto)
+                .toList();
+    }
+
+    /**
+     * Просмотры событий за период, часть сырых хитов которого удалена по сроку хранения: считаются
+     * по URI {@code /events/{id}} так же, как статистика за такой период ({@link #fetchStatsFromRepository}).
+     */
+    private List<EventViewsDto> findExpiredEventViews(LocalDateTime start, LocalDateTime end,
+                                                      Set<Long> ids, boolean unique) {
+        List<String> uris = ids.stream().map(id -> EndpointHitMapper.EVENT_URI_PREFIX + id).toList();
+        Map<Long, Long> views = fetchStatsFromRepository(start, end, uris, unique).stream()
+                .collect(Collectors.toMap(dto -> EndpointHitMapper.toResourceId(dto.getUri()), ViewStatsDto::getHits,
+                        Long::sum));
+
+        log.debug("Просмотры за период вне срока хранения получены для {} событий из {}", views.size(), ids.size());
+        return views.entrySet().stream()
+                .map(e -> new EventViewsDto(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * Преобразует DTO в сущность, если все обязательные поля заполнены и укладываются в ограничения таблицы.
+     * Возвращает null для некорректной записи — она попадёт в список отклонённых.
+     */
+    @Nullable
+    private EndpointHit toValidEntity(@Nullable EndpointHitDto dto) {
+        if (dto == null
+                || isBlankOrTooLong(dto.getApp(), MAX_APP_LENGTH)
+                || isBlankOrTooLong(dto.getUri(), MAX_URI_LENGTH)
+                || isBlankOrTooLong(dto.getIp(), MAX_IP_LENGTH)
+                || dto.getTimestamp() == null) {
+            log.debug("Отклонён некорректный хит: {}", dto);
+            return null;
+        }
+        try {
+            return EndpointHitMapper.toEntity(dto);
+        } catch (DateTimeParseException e) {
+            log.debug("Отклонён хит с некорректной датой: {}", dto.getTimestamp());
+            return null;
+        }
+    }
+
+    private boolean isBlankOrTooLong(@Nullable String value, int maxLength) {
+        return value == null || value.isBlank() || value.length() > maxLength;
+    }
+
     /**
      * Декодирует URL-кодированную строку с датой и парсит её в LocalDateTime.
      */
@@ -90,8 +209,11 @@ public class StatsServiceImpl implements StatsService {
 
     /**
      * Выполняет запрос к репозиторию в зависимости от флага 'unique'.
+     * Уникальные IP считаются по сырым хитам, неуникальные хиты — по агрегатам. Если сырые хиты начала периода
+     * уже удалены по сроку хранения ({@link HitRetention}), точно посчитать уникальные IP нельзя:
+     * они считаются приближённо по скетчам HyperLogLog, как при {@code approximate=true}.
      */
-    private List<StatsRepository.ViewStatsProjection> fetchStatsFromRepository(
+    private List<ViewStatsDto> fetchStatsFromRepository(
             LocalDateTime start,
             LocalDateTime end,
             @Nullable List<String> uris,
@@ -99,16 +221,20 @@ public class StatsServiceImpl implements StatsService {
     ) {
         boolean hasUris = uris != null && !uris.isEmpty();
 
-        if (unique) {
+        if (unique && !hitRetention.coversRawHits(start)) {
+            log.debug("Период начинается до срока хранения хитов, уникальная статистика считается по скетчам");
+            return statsRepository.findApproximateUniqueStats(start, end, uris);
+        } else if (unique) {
             log.debug("Запрос уникальной статистики. Фильтр по URI: {}", hasUris ? uris : "отсутствует");
-            return hasUris
+            List<StatsRepository.ViewStatsProjection> projections = hasUris
                     ? statsRepository.findUniqueStatsWithUriFilter(start, end, uris)
                     : statsRepository.findUniqueStatsWithoutUriFilter(start, end);
+            return projections.stream()
+                    .map(EndpointHitMapper::toViewStatsDto)
+                    .collect(Collectors.toList());
         } else {
-            log.debug("Запрос полной статистики. Фильтр по URI: {}", hasUris ? uris : "отсутствует");
-            return hasUris
-                    ? statsRepository.findAllStatsWithUriFilter(start, end, uris)
-                    : statsRepository.findAllStatsWithoutUriFilter(start, end);
+            log.debug("Запрос полной статистики по агрегатам. Фильтр по URI: {}", hasUris ? uris : "отсутствует");
+            return statsRepository.findRolledUpStats(start, end, uris);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package ru.practicum.stats.server.sketch;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Скетч HyperLogLog для приближённого подсчёта числа уникальных значений.
+ * <p>
+ * Скетч из {@code 2^precision} регистров; регистр хранит максимальный ранг (позицию первой единицы)
+ * среди хешей, попавших в него. Скетчи объединяются поэлементным максимумом регистров, поэтому
+ * их можно хранить по отдельным временным интервалам и сливать при запросе.
+ * Стандартная ошибка оценки — {@code 1.04 / sqrt(2^precision)}.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        validatePrecision(precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public static void validatePrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть в диапазоне "
+                    + MIN_PRECISION + ".." + MAX_PRECISION + ": " + precision);
+        }
+    }
+
+    /**
+     * Относительная стандартная ошибка оценки для заданной точности.
+     */
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /**
+     * 64-битный хеш строки: FNV-1a по байтам UTF-8 с финальным перемешиванием MurmurHash3.
+     * Значение не зависит от JVM, поэтому регистры можно хранить в базе.
+     */
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Номер регистра — старшие {@code precision} бит хеша.
+     */
+    public static int registerIndex(long hash, int precision) {
+        return (int) (hash >>> (64 - precision));
+    }
+
+    /**
+     * Ранг — позиция первой единицы в оставшихся битах хеша (от 1 до {@code 65 - precision}).
+     */
+    public static int registerValue(long hash, int precision) {
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        mergeRegister(registerIndex(hash, precision), registerValue(hash, precision));
+    }
+
+    /**
+     * Объединяет значение регистра, прочитанное из другого скетча (например, из базы).
+     */
+    public void mergeRegister(int index, int value) {
+        if (value > registers[index]) {
+            registers[index] = (byte) value;
+        }
+    }
+
+    /**
+     * Оценка числа уникальных значений; для малых мощностей используется линейный подсчёт.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
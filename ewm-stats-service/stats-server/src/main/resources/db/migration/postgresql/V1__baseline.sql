@@ -0,0 +1,65 @@
+-- Схема, которую раньше создавал Hibernate (ddl-auto=update).
+-- IF NOT EXISTS: на существующих базах миграция ничего не меняет.
+
+CREATE TABLE IF NOT EXISTS hits
+(
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app           VARCHAR(100) NOT NULL,
+    uri           VARCHAR(200) NOT NULL,
+    ip            VARCHAR(45)  NOT NULL,
+    hit_timestamp TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS hits_minute
+(
+    bucket_start TIMESTAMP(6) NOT NULL,
+    app          VARCHAR(100) NOT NULL,
+    uri          VARCHAR(200) NOT NULL,
+    hits         BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_start, app, uri)
+);
+CREATE INDEX IF NOT EXISTS idx_hits_minute_uri_bucket ON hits_minute (uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hits_hour
+(
+    bucket_start TIMESTAMP(6) NOT NULL,
+    app          VARCHAR(100) NOT NULL,
+    uri          VARCHAR(200) NOT NULL,
+    hits         BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_start, app, uri)
+);
+CREATE INDEX IF NOT EXISTS idx_hits_hour_uri_bucket ON hits_hour (uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hits_day
+(
+    bucket_start TIMESTAMP(6) NOT NULL,
+    app          VARCHAR(100) NOT NULL,
+    uri          VARCHAR(200) NOT NULL,
+    hits         BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_start, app, uri)
+);
+CREATE INDEX IF NOT EXISTS idx_hits_day_uri_bucket ON hits_day (uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hll_hour
+(
+    bucket_start   TIMESTAMP(6) NOT NULL,
+    app            VARCHAR(100) NOT NULL,
+    uri            VARCHAR(200) NOT NULL,
+    hll_precision  INTEGER      NOT NULL,
+    register_idx   INTEGER      NOT NULL,
+    register_value SMALLINT     NOT NULL,
+    PRIMARY KEY (bucket_start, app, uri, hll_precision, register_idx)
+);
+CREATE INDEX IF NOT EXISTS idx_hll_hour_uri_bucket ON hll_hour (uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hll_day
+(
+    bucket_start   TIMESTAMP(6) NOT NULL,
+    app            VARCHAR(100) NOT NULL,
+    uri            VARCHAR(200) NOT NULL,
+    hll_precision  INTEGER      NOT NULL,
+    register_idx   INTEGER      NOT NULL,
+    register_value SMALLINT     NOT NULL,
+    PRIMARY KEY (bucket_start, app, uri, hll_precision, register_idx)
+);
+CREATE INDEX IF NOT EXISTS idx_hll_day_uri_bucket ON hll_day (uri, bucket_start);
@@ -0,0 +1,52 @@
+-- Перевод hits в таблицу, секционированную по месяцам hit_timestamp.
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования: (id, hit_timestamp).
+-- Identity-столбцы на секционированных таблицах недоступны, id выдаётся обычной последовательностью.
+
+ALTER TABLE hits RENAME TO hits_legacy;
+
+CREATE SEQUENCE hits_partitioned_id_seq;
+
+CREATE TABLE hits
+(
+    id            BIGINT       NOT NULL DEFAULT nextval('hits_partitioned_id_seq'),
+    app           VARCHAR(100) NOT NULL,
+    uri           VARCHAR(200) NOT NULL,
+    ip            VARCHAR(45)  NOT NULL,
+    hit_timestamp TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, hit_timestamp)
+) PARTITION BY RANGE (hit_timestamp);
+
+ALTER SEQUENCE hits_partitioned_id_seq OWNED BY hits.id;
+
+-- Хиты вне созданных секций (например, с датой далеко в будущем) попадают сюда
+CREATE TABLE hits_default PARTITION OF hits DEFAULT;
+
+-- Индексы создаются на всех секциях автоматически
+CREATE INDEX idx_hits_uri_timestamp ON hits (uri, hit_timestamp);
+CREATE INDEX idx_hits_timestamp ON hits (hit_timestamp);
+
+-- Месячные секции: от первого накопленного хита до двух месяцев вперёд.
+-- Дальше секции создаёт HitPartitionManager.
+DO
+$$
+    DECLARE
+        month_start TIMESTAMP := date_trunc('month', COALESCE((SELECT MIN(hit_timestamp) FROM hits_legacy), now()));
+        last_month  TIMESTAMP := date_trunc('month', now()) + INTERVAL '2 months';
+    BEGIN
+        WHILE month_start <= last_month
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF hits FOR VALUES FROM (%L) TO (%L)',
+                               'hits_' || to_char(month_start, 'YYYY_MM'),
+                               month_start, month_start + INTERVAL '1 month');
+                month_start := month_start + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO hits (id, app, uri, ip, hit_timestamp)
+SELECT id, app, uri, ip, hit_timestamp
+FROM hits_legacy;
+
+SELECT setval('hits_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM hits), 0) + 1, false);
+
+DROP TABLE hits_legacy;
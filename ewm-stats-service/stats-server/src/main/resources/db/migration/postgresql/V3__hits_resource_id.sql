@@ -0,0 +1,11 @@
+-- Числовой идентификатор ресурса для хитов вида /events/{id}: просмотры событий считаются
+-- по нему, без сравнения и группировки строк URI. Для остальных URI столбец остаётся пустым.
+
+ALTER TABLE hits ADD COLUMN resource_id BIGINT;
+
+UPDATE hits
+SET resource_id = CAST(substring(uri FROM '^/events/([0-9]{1,18})$') AS BIGINT)
+WHERE uri ~ '^/events/[0-9]{1,18}$';
+
+-- Индекс создаётся на всех секциях автоматически
+CREATE INDEX idx_hits_resource_timestamp ON hits (resource_id, hit_timestamp) WHERE resource_id IS NOT NULL;
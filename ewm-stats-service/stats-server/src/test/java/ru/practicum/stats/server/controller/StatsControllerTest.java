@@ -10,6 +10,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.EventViewsQueryDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
+import ru.practicum.stats.dto.StatsQueryDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 import ru.practicum.stats.server.exception.ValidationException;
 import ru.practicum.stats.server.service.StatsService;
@@ -86,6 +90,43 @@ class StatsControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // ==================== ТЕСТЫ ДЛЯ /hits ====================
+
+    @Test
+    void hits_validBatch_returns201WithCounts() throws Exception {
+        List<EndpointHitDto> batch = List.of(
+                new EndpointHitDto(null, "test-app", "/events/1", "192.168.1.1", "2025-11-23 10:00:00"),
+                new EndpointHitDto(null, "test-app", "/events/2", "192.168.1.2", "bad-date")
+        );
+        when(statsService.saveHits(anyList()))
+                .thenReturn(new HitBatchResultDto(1, 1, List.of(1)));
+
+        mockMvc.perform(post("/hits")
+                        .content(objectMapper.writeValueAsString(batch))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedIndexes[0]").value(1));
+
+        verify(statsService).saveHits(argThat(hits -> hits.size() == 2
+                && "/events/1".equals(hits.get(0).getUri())
+                && "/events/2".equals(hits.get(1).getUri())));
+    }
+
+    @Test
+    void hits_notAnArray_returns400() throws Exception {
+        mockMvc.perform(post("/hits")
+                        .content("{\"app\": \"test\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(statsService, never()).saveHits(anyList());
+    }
+
     // ==================== ТЕСТЫ ДЛЯ /stats ====================
 
     @Test
@@ -141,6 +182,24 @@ class StatsControllerTest {
         );
     }
 
+    @Test
+    void getStats_uniqueAndApproximate_usesSketches() throws Exception {
+        when(statsService.getApproximateUniqueStats(anyString(), anyString(), any()))
+                .thenReturn(List.of(new ViewStatsDto("app1", "/u1", 7L)));
+
+        mockMvc.perform(get("/stats")
+                        .param("start", "2025-11-23 10:00:00")
+                        .param("end", "2025-11-23 12:00:00")
+                        .param("unique", "true")
+                        .param("approximate", "true")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hits").value(7));
+
+        verify(statsService).getApproximateUniqueStats(eq("2025-11-23 10:00:00"), eq("2025-11-23 12:00:00"), isNull());
+        verify(statsService, never()).getStats(anyString(), anyString(), any(), anyBoolean());
+    }
+
     @Test
     void getStats_missingStartParam_returns400() throws Exception {
         mockMvc.perform(get("/stats")
@@ -168,4 +227,68 @@ class StatsControllerTest {
                 )
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    // ==================== ТЕСТЫ ДЛЯ /stats/query ====================
+
+    @Test
+    void queryStats_bodyWithUris_returnsStats() throws Exception {
+        when(statsService.getStats(anyString(), anyString(), any(), anyBoolean()))
+                .thenReturn(List.of(new ViewStatsDto("app1", "/events/1", 4L)));
+        StatsQueryDto query = new StatsQueryDto("2025-11-23 10:00:00", "2025-11-23 12:00:00",
+                List.of("/events/1", "/events/2"), true, false);
+
+        mockMvc.perform(post("/stats/query")
+                        .content(objectMapper.writeValueAsString(query))
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uri").value("/events/1"))
+                .andExpect(jsonPath("$[0].hits").value(4));
+
+        verify(statsService).getStats(eq("2025-11-23 10:00:00"), eq("2025-11-23 12:00:00"),
+                eq(List.of("/events/1", "/events/2")), eq(true));
+    }
+
+    @Test
+    void queryStats_missingEnd_returns400() throws Exception {
+        mockMvc.perform(post("/stats/query")
+                        .content("{\"start\": \"2025-11-23 10:00:00\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(statsService, never()).getStats(anyString(), anyString(), any(), anyBoolean());
+    }
+
+    // ==================== ТЕСТЫ ДЛЯ /stats/views ====================
+
+    @Test
+    void getEventViews_bodyWithIds_returnsViews() throws Exception {
+        when(statsService.getEventViews(anyString(), anyString(), any(), anyBoolean()))
+                .thenReturn(List.of(new EventViewsDto(1L, 4L)));
+        EventViewsQueryDto query = new EventViewsQueryDto("2025-11-23 10:00:00", "2025-11-23 12:00:00",
+                List.of(1L, 2L), true);
+
+        mockMvc.perform(post("/stats/views")
+                        .content(objectMapper.writeValueAsString(query))
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventId").value(1))
+                .andExpect(jsonPath("$[0].hits").value(4));
+
+        verify(statsService).getEventViews(eq("2025-11-23 10:00:00"), eq("2025-11-23 12:00:00"),
+                eq(List.of(1L, 2L)), eq(true));
+    }
+
+    @Test
+    void getEventViews_missingIds_returns400() throws Exception {
+        mockMvc.perform(post("/stats/views")
+                        .content("{\"start\": \"2025-11-23 10:00:00\", \"end\": \"2025-11-23 12:00:00\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(statsService, never()).getEventViews(anyString(), anyString(), any(), anyBoolean());
+    }
+}
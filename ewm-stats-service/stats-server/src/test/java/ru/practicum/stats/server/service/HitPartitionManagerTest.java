@@ -0,0 +1,103 @@
+package ru.practicum.stats.server.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.repository.HitRetention;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Обслуживание секций {@code hits} на PostgreSQL со схемой из миграций Flyway: хиты, попавшие в секцию
+ * по умолчанию, переносятся в секцию своего месяца при её создании и удаляются по сроку хранения.
+ */
+@SpringBootTest
+class HitPartitionManagerTest {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM hits");
+    }
+
+    @Test
+    void newPartition_takesOverItsMonthFromDefaultPartition() {
+        YearMonth month = YearMonth.now().plusMonths(5);
+        insertHit(month.atDay(10).atTime(12, 0));
+        insertHit(month.plusMonths(1).atDay(1).atStartOfDay());
+        assertThat(countIn("hits_default")).isEqualTo(2);
+
+        manager(0, 5).maintainPartitions();
+
+        String partition = "hits_" + month.format(NAME_FORMAT);
+        assertThat(countIn(partition)).isEqualTo(1);
+        assertThat(countIn("hits_default")).isEqualTo(1);
+        assertThat(countIn("hits")).isEqualTo(2);
+
+        // Секция присоединена: новые хиты месяца идут в неё, а не в секцию по умолчанию
+        insertHit(month.atDay(20).atStartOfDay());
+        assertThat(countIn(partition)).isEqualTo(2);
+        assertThat(countIn("hits_default")).isEqualTo(1);
+    }
+
+    @Test
+    void retention_deletesExpiredHitsFromDefaultPartition() {
+        insertHit(LocalDateTime.of(2001, 1, 1, 0, 0));
+        insertHit(YearMonth.now().plusYears(5).atDay(1).atStartOfDay());
+
+        manager(1, 2).maintainPartitions();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT EXTRACT(YEAR FROM hit_timestamp) FROM hits_default",
+                Integer.class)).isEqualTo(YearMonth.now().plusYears(5).getYear());
+    }
+
+    private HitPartitionManager manager(int retentionMonths, int monthsAhead) {
+        return new HitPartitionManager(jdbcTemplate, transactionTemplate, new HitRetention(retentionMonths),
+                monthsAhead);
+    }
+
+    private void insertHit(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO hits (app, uri, ip, hit_timestamp) VALUES ('ewm-main-service', '/events/1',"
+                + " '10.0.0.1', ?)", Timestamp.valueOf(timestamp));
+    }
+
+    private int countIn(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.RollupGranularity;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Статистика за месяцы, сырые хиты которых удалены по сроку хранения: края периода читаются
+ * из минутного агрегата целыми минутами, уникальные IP считаются по скетчам, а не теряются.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retention;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "stats.hits.retention-months=1"
+})
+class StatsRetentionTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM hits");
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable());
+        }
+        jdbcTemplate.update("DELETE FROM hll_hour");
+        jdbcTemplate.update("DELETE FROM hll_day");
+    }
+
+    @Test
+    void expiredMonth_edgesAreReadFromMinuteRollup() {
+        LocalDateTime minute = YearMonth.now().minusMonths(3).atDay(10).atTime(10, 0);
+        saveHits(minute.plusSeconds(20), minute.plusSeconds(40), minute.plusMinutes(2), minute.plusMinutes(5).plusSeconds(30));
+        dropRawHitsBeforeRetention();
+
+        List<ViewStatsDto> stats = statsService.getStats(
+                minute.plusSeconds(30).format(FORMATTER), minute.plusMinutes(5).plusSeconds(45).format(FORMATTER),
+                List.of("/events/1"), false);
+
+        // Левый край расширен до 10:00 (оба хита этой минуты), правый — до конца минуты 10:05
+        assertThat(stats).extracting(ViewStatsDto::getHits).containsExactly(4L);
+    }
+
+    @Test
+    void retainedMonth_edgesStayExactToTheSecond() {
+        LocalDateTime minute = LocalDateTime.now().minusHours(1).withSecond(0).withNano(0);
+        saveHits(minute.plusSeconds(20), minute.plusSeconds(40), minute.plusMinutes(2), minute.plusMinutes(5).plusSeconds(50));
+        dropRawHitsBeforeRetention();
+
+        List<ViewStatsDto> stats = statsService.getStats(
+                minute.plusSeconds(30).format(FORMATTER), minute.plusMinutes(5).plusSeconds(45).format(FORMATTER),
+                List.of("/events/1"), false);
+
+        assertThat(stats).extracting(ViewStatsDto::getHits).containsExactly(2L);
+    }
+
+    @Test
+    void expiredMonth_uniqueStatsFallBackToSketches() {
+        LocalDateTime day = YearMonth.now().minusMonths(3).atDay(10).atStartOfDay();
+        for (int i = 0; i < 5; i++) {
+            saveHit("/events/1", "10.0.0." + (i % 3), day.plusHours(i));
+        }
+        dropRawHitsBeforeRetention();
+
+        List<ViewStatsDto> stats = statsService.getStats(day.format(FORMATTER), LocalDateTime.now().format(FORMATTER),
+                List.of("/events/1"), true);
+        List<EventViewsDto> views = statsService.getEventViews(day.format(FORMATTER),
+                LocalDateTime.now().format(FORMATTER), List.of(1L, 2L), true);
+
+        assertThat(stats).extracting(ViewStatsDto::getHits).containsExactly(3L);
+        assertThat(views).extracting(EventViewsDto::getEventId, EventViewsDto::getHits).containsExactly(tuple(1L, 3L));
+    }
+
+    @Test
+    void expiredMonth_eventViewsReadFromRollups() {
+        LocalDateTime day = YearMonth.now().minusMonths(3).atDay(10).atStartOfDay();
+        saveHit("/events/1", "10.0.0.1", day);
+        saveHit("/events/1", "10.0.0.1", day.plusHours(1));
+        saveHit("/events/2", "10.0.0.1", LocalDateTime.now().minusMinutes(1));
+        dropRawHitsBeforeRetention();
+
+        List<EventViewsDto> views = statsService.getEventViews(day.format(FORMATTER),
+                LocalDateTime.now().format(FORMATTER), List.of(1L, 2L), false);
+
+        assertThat(views).extracting(EventViewsDto::getEventId, EventViewsDto::getHits)
+                .containsExactlyInAnyOrder(tuple(1L, 2L), tuple(2L, 1L));
+    }
+
+    private void saveHits(LocalDateTime... timestamps) {
+        for (LocalDateTime timestamp : timestamps) {
+            saveHit("/events/1", "10.0.0.1", timestamp);
+        }
+    }
+
+    private void saveHit(String uri, String ip, LocalDateTime timestamp) {
+        statsService.saveHit(new EndpointHitDto(null, "ewm-main-service", uri, ip, timestamp.format(FORMATTER)));
+    }
+
+    /**
+     * То же, что удаление месячных секций {@code HitPartitionManager} на PostgreSQL.
+     */
+    private void dropRawHitsBeforeRetention() {
+        jdbcTemplate.update("DELETE FROM hits WHERE hit_timestamp < ?",
+                Timestamp.valueOf(YearMonth.now().minusMonths(1).atDay(1).atStartOfDay()));
+    }
+}
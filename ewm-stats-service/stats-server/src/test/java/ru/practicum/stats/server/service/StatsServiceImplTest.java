@@ -5,18 +5,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.EventViewsDto;
+import ru.practicum.stats.dto.HitBatchResultDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 import ru.practicum.stats.server.exception.ValidationException;
+import ru.practicum.stats.server.mapper.EndpointHitMapper;
 import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.model.RollupGranularity;
 import ru.practicum.stats.server.repository.StatsRepository;
+import ru.practicum.stats.server.sketch.HyperLogLog;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
 
 /**
  * Интеграционные тесты для {@link StatsServiceImpl}.
@@ -31,27 +42,33 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
         "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
         "spring.datasource.driver-class-name=org.h2.Driver",
         "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
         "spring.jpa.show-sql=false",
         "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
         "logging.level.ru.practicum.stats=DEBUG"
 })
 class StatsServiceImplTest {
 
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     @Autowired
     private StatsService statsService;
 
     @Autowired
     private StatsRepository statsRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         // Очистка не обязательна при ddl-auto=create-drop, но для надёжности:
-        statsRepository.deleteAll();
+        clearAll();
     }
 
     @AfterEach
     void tearDown() {
-        statsRepository.deleteAll();
+        clearAll();
     }
 
     // ==================== ТЕСТЫ ДЛЯ saveHit ====================
@@ -77,6 +94,47 @@ class StatsServiceImplTest {
         assertThat(hit.getTimestamp()).isEqualTo(LocalDateTime.of(2025, 11, 23, 10, 0, 0));
     }
 
+    // ==================== ТЕСТЫ ДЛЯ saveHits ====================
+
+    @Test
+    void saveHits_mixedBatch_savesValidAndReportsRejected() {
+        List<EndpointHitDto> batch = List.of(
+                new EndpointHitDto(null, "test-app", "/events/1", "192.168.1.1", "2025-11-23 10:00:00"),
+                new EndpointHitDto(null, "test-app", "/events/2", "192.168.1.2", "23.11.2025 10:00"),
+                new EndpointHitDto(null, "test-app", "/events/3", "192.168.1.3", "2025-11-23 10:01:00"),
+                new EndpointHitDto(null, "", "/events/4", "192.168.1.4", "2025-11-23 10:02:00")
+        );
+
+        HitBatchResultDto result = statsService.saveHits(batch);
+
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getRejectedIndexes()).containsExactly(1, 3);
+
+        assertThat(statsRepository.findAll())
+                .extracting(EndpointHit::getUri)
+                .containsExactlyInAnyOrder("/events/1", "/events/3");
+    }
+
+    @Test
+    void saveHits_savedHitsAreVisibleInStats() {
+        statsService.saveHits(List.of(
+                new EndpointHitDto(null, "app1", "/u1", "1.1.1.1", "2025-11-23 11:00:00"),
+                new EndpointHitDto(null, "app1", "/u1", "2.2.2.2", "2025-11-23 11:01:00"),
+                new EndpointHitDto(null, "app1", "/u2", "1.1.1.1", "2025-11-23 11:02:00")
+        ));
+
+        List<ViewStatsDto> result = statsService.getStats(
+                urlEncode("2025-11-23 10:00:00"),
+                urlEncode("2025-11-23 12:00:00"),
+                List.of("/u1"),
+                false
+        );
+
+        assertThat(result).hasSize(1);
+        assertThat(result.getFirst().getHits()).isEqualTo(2L);
+    }
+
     // ==================== ТЕСТЫ ДЛЯ getStats ====================
 
     @Test
@@ -204,8 +262,133 @@ class StatsServiceImplTest {
                 .hasMessageStartingWith("Некорректный формат даты для параметра:");
     }
 
+    // ==================== ТЕСТЫ ДЛЯ АГРЕГАТОВ ====================
+
+    @Test
+    void getStats_notUnique_rollupsMatchRawCountsForAnyRange() {
+        List<EndpointHitDto> batch = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 11, 20, 22, 58, 30);
+        for (int i = 0; i < 400; i++) {
+            // Шаг 17 мин 13 с: хиты попадают в разные секунды, минуты, часы и сутки
+            LocalDateTime time = base.plusSeconds(i * 1033L);
+            batch.add(new EndpointHitDto(null, "app1", "/u" + (i % 3), "10.0.0." + (i % 7), time.format(FORMATTER)));
+        }
+        statsService.saveHits(batch);
+
+        List<LocalDateTime[]> ranges = List.of(
+                new LocalDateTime[]{LocalDateTime.of(2025, 11, 20, 0, 0), LocalDateTime.of(2025, 11, 26, 0, 0)},
+                new LocalDateTime[]{LocalDateTime.of(2025, 11, 20, 23, 15, 7), LocalDateTime.of(2025, 11, 23, 4, 44, 59)},
+                new LocalDateTime[]{LocalDateTime.of(2025, 11, 21, 0, 0), LocalDateTime.of(2025, 11, 22, 0, 0)},
+                new LocalDateTime[]{LocalDateTime.of(2025, 11, 21, 10, 0, 1), LocalDateTime.of(2025, 11, 21, 10, 59, 59)},
+                new LocalDateTime[]{LocalDateTime.of(2025, 11, 22, 5, 30, 30), LocalDateTime.of(2025, 11, 22, 5, 30, 40)},
+                new LocalDateTime[]{base, base}
+        );
+
+        for (LocalDateTime[] range : ranges) {
+            for (List<String> uris : Arrays.asList(null, List.of("/u0", "/u2"))) {
+                List<ViewStatsDto> rolledUp = statsService.getStats(
+                        urlEncode(range[0].format(FORMATTER)), urlEncode(range[1].format(FORMATTER)), uris, false);
+                List<StatsRepository.ViewStatsProjection> raw = uris == null
+                        ? statsRepository.findAllStatsWithoutUriFilter(range[0], range[1])
+                        : statsRepository.findAllStatsWithUriFilter(range[0], range[1], uris);
+
+                assertThat(rolledUp)
+                        .as("диапазон %s — %s, uris=%s", range[0], range[1], uris)
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactlyInAnyOrderElementsOf(raw.stream().map(EndpointHitMapper::toViewStatsDto).toList());
+            }
+        }
+    }
+
+    @Test
+    void backfillRollupsIfEmpty_buildsRollupsFromExistingHits() {
+        statsRepository.saveAll(List.of(
+                new EndpointHit(null, "app1", "/u1", "1.1.1.1", LocalDateTime.of(2025, 11, 23, 10, 0, 5), null),
+                new EndpointHit(null, "app1", "/u1", "2.2.2.2", LocalDateTime.of(2025, 11, 23, 10, 0, 50), null),
+                new EndpointHit(null, "app1", "/u1", "2.2.2.2", LocalDateTime.of(2025, 11, 24, 9, 0, 0), null)
+        ));
+
+        assertThat(statsRepository.backfillRollupsIfEmpty()).isTrue();
+        assertThat(statsRepository.backfillRollupsIfEmpty()).isFalse();
+
+        List<ViewStatsDto> result = statsService.getStats(
+                urlEncode("2025-11-22 00:00:00"), urlEncode("2025-11-25 00:00:00"), null, false);
+        assertThat(result).hasSize(1);
+        assertThat(result.getFirst().getHits()).isEqualTo(3L);
+    }
+
+    // ==================== ТЕСТЫ ДЛЯ ПРИБЛИЖЁННОГО ПОДСЧЁТА ====================
+
+    @Test
+    void getApproximateUniqueStats_withinErrorBoundOfExactCount() {
+        List<EndpointHitDto> batch = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 11, 20, 21, 10, 0);
+        for (int i = 0; i < 6000; i++) {
+            // 3000 уникальных IP на /u1, каждый встречается дважды; хиты растянуты на трое суток
+            int k = i % 3000;
+            String ip = "10." + (k / 256) + "." + (k % 256) + ".1";
+            batch.add(new EndpointHitDto(null, "app1", "/u1", ip, base.plusSeconds(i * 43L).format(FORMATTER)));
+            batch.add(new EndpointHitDto(null, "app1", "/u2", "192.168.0." + (i % 50), base.plusSeconds(i * 43L).format(FORMATTER)));
+        }
+        statsService.saveHits(batch);
+
+        LocalDateTime start = LocalDateTime.of(2025, 11, 20, 22, 17, 13);
+        LocalDateTime end = LocalDateTime.of(2025, 11, 23, 19, 3, 2);
+        List<ViewStatsDto> approximate = statsService.getApproximateUniqueStats(
+                urlEncode(start.format(FORMATTER)), urlEncode(end.format(FORMATTER)), null);
+        List<StatsRepository.ViewStatsProjection> exact = statsRepository.findUniqueStatsWithoutUriFilter(start, end);
+
+        // Три стандартные ошибки при точности по умолчанию (12)
+        double bound = 3 * HyperLogLog.standardError(12);
+        assertThat(approximate).hasSameSizeAs(exact);
+        for (StatsRepository.ViewStatsProjection e : exact) {
+            ViewStatsDto a = approximate.stream()
+                    .filter(s -> s.getUri().equals(e.getUri()))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat((double) a.getHits()).isCloseTo(e.getHits(), within(e.getHits() * bound + 1));
+        }
+    }
+
+    // ==================== ТЕСТЫ ДЛЯ getEventViews ====================
+
+    @Test
+    void getEventViews_countsByEventIdFromSingleAndBatchHits() {
+        saveHit("app1", "/events/7", "1.1.1.1", "2025-11-23 10:00:00");
+        statsService.saveHits(List.of(
+                new EndpointHitDto(null, "app1", "/events/7", "1.1.1.1", "2025-11-23 10:05:00"),
+                new EndpointHitDto(null, "app1", "/events/7", "2.2.2.2", "2025-11-23 10:06:00"),
+                new EndpointHitDto(null, "app1", "/events/8", "1.1.1.1", "2025-11-23 10:07:00"),
+                new EndpointHitDto(null, "app1", "/events/7/comments", "3.3.3.3", "2025-11-23 10:08:00"),
+                new EndpointHitDto(null, "app1", "/events", "3.3.3.3", "2025-11-23 10:09:00")
+        ));
+
+        List<EventViewsDto> all = statsService.getEventViews(
+                urlEncode("2025-11-23 09:00:00"), urlEncode("2025-11-23 11:00:00"), List.of(7L, 8L, 9L), false);
+        List<EventViewsDto> unique = statsService.getEventViews(
+                urlEncode("2025-11-23 09:00:00"), urlEncode("2025-11-23 11:00:00"), List.of(7L, 8L, 9L), true);
+
+        assertThat(all).extracting(EventViewsDto::getEventId, EventViewsDto::getHits)
+                .containsExactlyInAnyOrder(tuple(7L, 3L), tuple(8L, 1L));
+        assertThat(unique).extracting(EventViewsDto::getEventId, EventViewsDto::getHits)
+                .containsExactlyInAnyOrder(tuple(7L, 2L), tuple(8L, 1L));
+        assertThat(statsRepository.findAll())
+                .filteredOn(h -> !h.getUri().matches("/events/\\d+"))
+                .extracting(EndpointHit::getResourceId)
+                .containsOnlyNulls();
+    }
+
     // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
 
+    private void clearAll() {
+        statsRepository.deleteAll();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable());
+        }
+        jdbcTemplate.update("DELETE FROM hll_hour");
+        jdbcTemplate.update("DELETE FROM hll_day");
+    }
+
     private void saveHit(String app, String uri, String ip, String timestamp) {
         EndpointHitDto dto = new EndpointHitDto(null, app, uri, ip, timestamp);
         statsService.saveHit(dto);
@@ -0,0 +1,70 @@
+package ru.practicum.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Модульные тесты для {@link HyperLogLog}: оценка укладывается в заявленную стандартную ошибку.
+ */
+class HyperLogLogTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "10, 20000",
+            "12, 1000",
+            "12, 100000",
+            "14, 50000"
+    })
+    void estimate_withinThreeStandardErrors(int precision, int cardinality) {
+        HyperLogLog hll = new HyperLogLog(precision);
+        for (int i = 0; i < cardinality; i++) {
+            String ip = (i >>> 24) + "." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+            hll.add(ip);
+            hll.add(ip); // повтор не влияет на оценку
+        }
+
+        double bound = 3 * HyperLogLog.standardError(precision) * cardinality;
+        assertThat((double) hll.estimate()).isCloseTo(cardinality, within(bound));
+    }
+
+    @Test
+    void mergeRegister_unionOfSketchesEqualsSketchOfUnion() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        for (int i = 0; i < 5000; i++) {
+            (i % 2 == 0 ? left : right).add("ip-" + i);
+            union.add("ip-" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            long hash = HyperLogLog.hash("ip-" + i);
+            if (i % 2 != 0) {
+                left.mergeRegister(HyperLogLog.registerIndex(hash, 12), HyperLogLog.registerValue(hash, 12));
+            }
+        }
+
+        assertThat(left.estimate()).isEqualTo(union.estimate());
+    }
+
+    @Test
+    void smallCardinality_isNearlyExact() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (int i = 0; i < 50; i++) {
+            hll.add("192.168.0." + i);
+        }
+
+        assertThat(hll.estimate()).isBetween(49L, 51L);
+    }
+
+    @Test
+    void constructor_precisionOutOfRange_throws() {
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(17)).isInstanceOf(IllegalArgumentException.class);
+    }
+}